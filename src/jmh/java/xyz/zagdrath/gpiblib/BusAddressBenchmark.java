@@ -0,0 +1,57 @@
+/*
+ * @(#)BusAddressBenchmark.java
+ * 
+ * Copyright (c) 2022 Cody L. Wellman. All rights reserved. This work is
+ * licensed under the terms of the MIT license which can be found in the
+ * root directory of this project.
+ * 
+ * Author: Cody L. Wellman <zecoderex@gmail.com>
+ * 
+ * Created: October 17, 2026
+ * Updated: October 17, 2026
+ */
+
+package xyz.zagdrath.gpiblib;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+
+/**
+ * Benchmarks parsing and formatting of GPIB bus address URLs.
+ */
+@Fork(value = 3, jvmArgsAppend = { "-Xms1g", "-Xmx1g" })
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 10, time = 2)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Thread)
+public class BusAddressBenchmark {
+    private final BusAddress busAddress = new BusAddress((byte) 3, (byte) 0x60);
+
+    private String primaryURL = "GPIB:3";
+    private String secondaryURL = "GPIB:3,96";
+
+    @Benchmark
+    public BusAddress fromPrimaryURL() {
+        return busAddress.fromBusAddressURL(primaryURL);
+    }
+
+    @Benchmark
+    public BusAddress fromSecondaryURL() {
+        return busAddress.fromBusAddressURL(secondaryURL);
+    }
+
+    @Benchmark
+    public String toURL() {
+        return busAddress.getBusAddressURL();
+    }
+}
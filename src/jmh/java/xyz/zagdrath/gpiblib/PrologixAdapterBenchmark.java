@@ -0,0 +1,172 @@
+/*
+ * @(#)PrologixAdapterBenchmark.java
+ * 
+ * Copyright (c) 2022 Cody L. Wellman. All rights reserved. This work is
+ * licensed under the terms of the MIT license which can be found in the
+ * root directory of this project.
+ * 
+ * Author: Cody L. Wellman <zecoderex@gmail.com>
+ * 
+ * Created: October 17, 2026
+ * Updated: October 17, 2026
+ */
+
+package xyz.zagdrath.gpiblib;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+
+import xyz.zagdrath.gpiblib.util.ReadlineTerminationMode;
+
+/**
+ * Benchmarks the read buffer and cooking paths of PrologixAdapter, fed by an
+ * adapter that receives bytes directly instead of from a connection.
+ */
+@Fork(value = 3, jvmArgsAppend = { "-Xms1g", "-Xmx1g" })
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 10, time = 2)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Thread)
+public class PrologixAdapterBenchmark {
+    private final BenchmarkAdapter benchmarkAdapter = new BenchmarkAdapter();
+
+    private final static Charset ascii = Charset.forName("US-ASCII");
+
+    private final static byte[] response = "F +1.0000000000E+07\r\n".getBytes(ascii);
+    private final static byte[] instrumentCommand = "FN1".getBytes(ascii);
+    private final static String instrumentString = "FN1";
+    private final static byte[] binaryPayload = new byte[256];
+
+    static {
+        for (int i = 0; i < binaryPayload.length; i++) {
+            binaryPayload[i] = (byte) i;
+        }
+    }
+
+    /**
+     * Adapter that transmits nowhere and receives whatever the benchmark hands
+     * it.
+     */
+    static class BenchmarkAdapter extends PrologixAdapter {
+        @Override
+        protected void prologixTransmit(ByteBuffer byteBuffer) {
+            byteBuffer.position(byteBuffer.limit());
+        }
+
+        @Override
+        public void closeConnection() {
+
+        }
+
+        void receive(byte[] bytes) {
+            prologixReceive(bytes, 0, bytes.length);
+        }
+    }
+
+    /**
+     * A response terminated the way each termination mode expects.
+     */
+    @State(Scope.Thread)
+    public static class Framing {
+        @Param({ "CR", "LF", "CR_LF", "OPTCR_LF", "LF_CR" })
+        private ReadlineTerminationMode readlineTerminationMode;
+
+        private final BenchmarkAdapter benchmarkAdapter = new BenchmarkAdapter();
+        private final ByteBuffer line = ByteBuffer.allocate(256);
+        private byte[] response;
+
+        @Setup(Level.Trial)
+        public void setup() {
+            String terminator;
+
+            switch (readlineTerminationMode) {
+                case CR: {
+                    terminator = "\r";
+
+                    break;
+                }
+
+                case LF: {
+                    terminator = "\n";
+
+                    break;
+                }
+
+                case CR_LF:
+                case OPTCR_LF: {
+                    terminator = "\r\n";
+
+                    break;
+                }
+
+                case LF_CR: {
+                    terminator = "\n\r";
+
+                    break;
+                }
+
+                default: {
+                    throw new RuntimeException();
+                }
+            }
+
+            response = ("F +1.0000000000E+07" + terminator).getBytes(ascii);
+        }
+    }
+
+    @Benchmark
+    public int readLineIntoBuffer(Framing framing)
+            throws IOException, InterruptedException, TimeoutException {
+        framing.benchmarkAdapter.receive(framing.response);
+        framing.line.clear();
+
+        return framing.benchmarkAdapter.prologixReadLine(framing.readlineTerminationMode,
+                framing.line, 1000);
+    }
+
+    @Benchmark
+    public byte[] readLine(Framing framing)
+            throws IOException, InterruptedException, TimeoutException {
+        framing.benchmarkAdapter.receive(framing.response);
+
+        return framing.benchmarkAdapter.prologixReadLine(framing.readlineTerminationMode, 1000);
+    }
+
+    @Benchmark
+    public void clearReadBuffer() {
+        benchmarkAdapter.receive(response);
+        benchmarkAdapter.prologixClearReadBuffer();
+    }
+
+    @Benchmark
+    public void cookInstrumentCommand() throws IOException {
+        benchmarkAdapter.prologixWriteCooked(instrumentCommand);
+    }
+
+    @Benchmark
+    public void cookInstrumentString() throws IOException {
+        benchmarkAdapter.prologixWriteCooked(instrumentString);
+    }
+
+    @Benchmark
+    public void cookBinaryPayload() throws IOException {
+        benchmarkAdapter.prologixWriteCooked(binaryPayload);
+    }
+}
@@ -0,0 +1,70 @@
+/*
+ * @(#)HP5334ParseBenchmark.java
+ * 
+ * Copyright (c) 2022 Cody L. Wellman. All rights reserved. This work is
+ * licensed under the terms of the MIT license which can be found in the
+ * root directory of this project.
+ * 
+ * Author: Cody L. Wellman <zecoderex@gmail.com>
+ * 
+ * Created: October 17, 2026
+ * Updated: October 17, 2026
+ */
+
+package xyz.zagdrath.gpiblib.instrument;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+
+import xyz.zagdrath.gpiblib.util.AsciiNumberParser;
+
+/**
+ * Benchmarks parsing of HP 5334 readings, directly from bytes and through a
+ * String as the getters did before.
+ */
+@Fork(value = 3, jvmArgsAppend = { "-Xms1g", "-Xmx1g" })
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 10, time = 2)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Thread)
+public class HP5334ParseBenchmark {
+    @Param({ "F +1.0000000000E+07", "+9.9999999952E-08", "TI -1.234567E-06" })
+    private String reading;
+
+    private ByteBuffer readingBuffer;
+    private byte[] readingBytes;
+
+    private final static Charset ascii = Charset.forName("US-ASCII");
+
+    @Setup
+    public void setup() {
+        readingBytes = reading.getBytes(ascii);
+        readingBuffer = ByteBuffer.wrap(readingBytes);
+    }
+
+    @Benchmark
+    public double parseBytes() {
+        return AsciiNumberParser.parseDouble(readingBuffer);
+    }
+
+    @Benchmark
+    public double parseString() {
+        String string = new String(readingBytes, ascii).trim();
+
+        return Double.parseDouble(string.substring(string.lastIndexOf(' ') + 1));
+    }
+}
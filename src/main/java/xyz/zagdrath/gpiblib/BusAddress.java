@@ -8,7 +8,7 @@
  * Author: Cody L. Wellman <zecoderex@gmail.com>
  * 
  * Created: July 06, 2022
- * Updated: July 10, 2022
+ * Updated: October 17, 2026
  */
 
 package xyz.zagdrath.gpiblib;
@@ -59,7 +59,7 @@ public class BusAddress {
      * @return BusAddress
      */
     public BusAddress fromBusAddressURL(String busAddressURL) {
-        if (busAddressURL == null || !busAddressURL.trim().toLowerCase().startsWith("GPIB:")) {
+        if (busAddressURL == null || !busAddressURL.trim().toUpperCase().startsWith("GPIB:")) {
             return null;
         }
 
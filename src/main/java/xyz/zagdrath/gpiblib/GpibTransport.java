@@ -0,0 +1,144 @@
+/*
+ * @(#)GpibTransport.java
+ * 
+ * Copyright (c) 2022 Cody L. Wellman. All rights reserved. This work is
+ * licensed under the terms of the MIT license which can be found in the
+ * root directory of this project.
+ * 
+ * Author: Cody L. Wellman <zecoderex@gmail.com>
+ * 
+ * Created: October 17, 2026
+ * Updated: October 17, 2026
+ */
+
+package xyz.zagdrath.gpiblib;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeoutException;
+
+import xyz.zagdrath.gpiblib.util.EncodedCommand;
+import xyz.zagdrath.gpiblib.util.ReadlineTerminationMode;
+
+/**
+ * A connection to a GPIB controller that instruments are driven through,
+ * independent of whether it is reached over Ethernet, USB or in memory.
+ * 
+ * A transport is not thread safe. Threads that share one, such as an
+ * SrqMonitor and the instruments it watches, synchronize on the transport for
+ * the length of each command and reply, or submit their transactions through
+ * a TransactionSerializer.
+ */
+public interface GpibTransport {
+    /**
+     * Receives the data of a binary block in pieces as it arrives.
+     */
+    interface BlockConsumer {
+        /**
+         * Called with the next piece of the block.
+         * 
+         * @param segment read-only view of the read buffer, only valid for
+         *        the duration of the call
+         * @throws IOException
+         */
+        void accept(ByteBuffer segment) throws IOException;
+    }
+
+    // Addressing
+
+    void setBusAddress(BusAddress busAddress) throws IOException;
+
+    void invalidateBusAddress();
+
+    // Writing
+
+    void prologixWriteCommand(String command) throws IOException, IllegalArgumentException;
+
+    void prologixWriteCommand(PrologixCommand command) throws IOException;
+
+    void prologixWriteCommand(PrologixCommand command, int value) throws IOException;
+
+    void prologixWriteEncoded(EncodedCommand encodedCommand) throws IOException;
+
+    void prologixWriteEncoded(EncodedCommand encodedCommand, int value) throws IOException;
+
+    void prologixWriteEncoded(EncodedCommand encodedCommand, double value, int fractionDigits)
+            throws IOException;
+
+    void prologixWriteCooked(byte[] bytes) throws IOException, IllegalArgumentException;
+
+    void prologixWriteCooked(String string) throws IOException, IllegalArgumentException;
+
+    void prologixWriteBinaryBlock(String header, ByteBuffer payload)
+            throws IOException, IllegalArgumentException;
+
+    // Batching
+
+    void beginBatch() throws IOException;
+
+    boolean isBatching();
+
+    void batchExpectReply(ReadlineTerminationMode readlineTerminationMode) throws IOException;
+
+    byte[][] flush(long timeoutMs) throws IOException, InterruptedException, TimeoutException;
+
+    void abandonBatch();
+
+    // Reading
+
+    byte[] prologixReadLine(ReadlineTerminationMode readlineTerminationMode, long timeoutMs)
+            throws IOException, InterruptedException, TimeoutException;
+
+    int prologixReadLine(ReadlineTerminationMode readlineTerminationMode, ByteBuffer line,
+            long timeoutMs) throws IOException, InterruptedException, TimeoutException;
+
+    ByteBuffer prologixReadEOI(long timeoutMs) throws IOException, InterruptedException, TimeoutException;
+
+    ByteBuffer prologixReadUntil(int terminator, long timeoutMs)
+            throws IOException, InterruptedException, TimeoutException;
+
+    long prologixReadBinaryBlock(BlockConsumer blockConsumer, long timeoutMs)
+            throws IOException, InterruptedException, TimeoutException;
+
+    ByteBuffer prologixReadBinaryBlock(long timeoutMs)
+            throws IOException, InterruptedException, TimeoutException;
+
+    void prologixClearReadBuffer();
+
+    // Service Requests
+
+    boolean isServiceRequested() throws IOException, InterruptedException, TimeoutException;
+
+    int serialPoll(BusAddress busAddress) throws IOException, InterruptedException, TimeoutException;
+
+    // Triggering
+
+    void sendTrigger() throws IOException;
+
+    void sendTrigger(BusAddress[] busAddresses, int count) throws IOException, IllegalArgumentException;
+
+    // Asynchronous
+
+    Executor getTransportExecutor();
+
+    // Statistics
+
+    TransportMetrics getTransportMetrics();
+
+    long getBytesReceived();
+
+    long getChunksReceived();
+
+    long getBytesOverrun();
+
+    long getLastReceiveNanos();
+
+    long getAddressSwitches();
+
+    long getAddressSwitchesAvoided();
+
+    // Connection
+
+    void closeConnection() throws IOException;
+}
@@ -0,0 +1,296 @@
+/*
+ * @(#)GroupTrigger.java
+ * 
+ * Copyright (c) 2022 Cody L. Wellman. All rights reserved. This work is
+ * licensed under the terms of the MIT license which can be found in the
+ * root directory of this project.
+ * 
+ * Author: Cody L. Wellman <zecoderex@gmail.com>
+ * 
+ * Created: October 17, 2026
+ * Updated: October 17, 2026
+ */
+
+package xyz.zagdrath.gpiblib;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import xyz.zagdrath.gpiblib.util.AsciiNumberParser;
+import xyz.zagdrath.gpiblib.util.ReadlineTerminationMode;
+
+/**
+ * Samples a group of instruments at the same moment.
+ * 
+ * Every instrument in the group is triggered by one ++trg, then the readings
+ * are collected in a single pipelined pass: the ++addr and ++read eoi of every
+ * instrument go out in one batched write and the replies are framed as they
+ * arrive, rather than one command and reply round trip per instrument.
+ * 
+ * An instrument that does not answer in time gets NaN and is flagged as timed
+ * out, along with every instrument after it: replies come back in the order
+ * the reads were queued, so once one is late the ones behind it cannot be
+ * told apart from it. Those reads are waited out before trigger() returns, so
+ * no late reply is framed by the next trigger.
+ * 
+ * Times are System.nanoTime() values, so they only compare with each other
+ * and are not affected by changes to the wall clock. The readings and times
+ * are held in arrays that are reused by the next trigger, nothing is
+ * allocated per sample.
+ */
+public class GroupTrigger {
+    private final GpibTransport gpibTransport;
+    private final BusAddress[] busAddresses;
+
+    private final double[] readings;
+    private final long[] replyNanos;
+    private final boolean[] timedOut;
+    private final ByteBuffer responseBuffer = ByteBuffer.allocate(responseBufferCapacity);
+
+    private ReadlineTerminationMode readlineTerminationMode = ReadlineTerminationMode.OPTCR_LF;
+
+    private long triggerNanos;
+    private long triggers;
+    private int timeouts;
+
+    private final static int maxInstruments = 15;
+    private final static int responseBufferCapacity = 256;
+
+    /**
+     * Constructs a group.
+     * 
+     * @param gpibTransport
+     * @param busAddresses between 1 and 15 instruments
+     * @throws IllegalArgumentException
+     */
+    public GroupTrigger(GpibTransport gpibTransport, BusAddress... busAddresses)
+            throws IllegalArgumentException {
+        if (gpibTransport == null) {
+            throw new IllegalArgumentException("ERROR: Invalid GPIB Transport");
+        }
+
+        if (busAddresses == null || busAddresses.length < 1 || busAddresses.length > maxInstruments) {
+            throw new IllegalArgumentException("ERROR: Invalid Bus Address Count");
+        }
+
+        for (BusAddress busAddress : busAddresses) {
+            if (busAddress == null) {
+                throw new IllegalArgumentException("ERROR: Invalid Bus Address");
+            }
+        }
+
+        this.gpibTransport = gpibTransport;
+        this.busAddresses = busAddresses.clone();
+        this.readings = new double[busAddresses.length];
+        this.replyNanos = new long[busAddresses.length];
+        this.timedOut = new boolean[busAddresses.length];
+    }
+
+    /**
+     * Set's how the instruments terminate their readings.
+     * 
+     * @param readlineTerminationMode
+     */
+    public void setReadlineTerminationMode(ReadlineTerminationMode readlineTerminationMode) {
+        if (readlineTerminationMode == null) {
+            throw new IllegalArgumentException("ERROR: Invalid Termination Mode");
+        }
+
+        this.readlineTerminationMode = readlineTerminationMode;
+    }
+
+    /**
+     * Triggers every instrument and collects their readings. A reply that is
+     * not a number is stored as NaN, as is the reading of an instrument that
+     * timed out.
+     * 
+     * @param timeoutMs for all of the readings together
+     * @throws IOException
+     * @throws InterruptedException
+     * @throws TimeoutException
+     */
+    public void trigger(long timeoutMs) throws IOException, InterruptedException, TimeoutException {
+        int count = busAddresses.length;
+
+        synchronized (gpibTransport) {
+            gpibTransport.prologixClearReadBuffer();
+
+            gpibTransport.sendTrigger(busAddresses, count);
+
+            triggerNanos = System.nanoTime();
+
+            long deadlineNanos = triggerNanos + TimeUnit.MILLISECONDS.toNanos(timeoutMs);
+
+            gpibTransport.beginBatch();
+
+            try {
+                for (int i = 0; i < count; i++) {
+                    gpibTransport.setBusAddress(busAddresses[i]);
+                    gpibTransport.prologixWriteCommand(PrologixCommand.READ_EOI);
+                }
+            } catch (IOException | RuntimeException e) {
+                gpibTransport.abandonBatch();
+
+                throw e;
+            }
+
+            gpibTransport.flush(timeoutMs);
+
+            int collected = 0;
+
+            try {
+                for (; collected < count; collected++) {
+                    long remainingMs = TimeUnit.NANOSECONDS.toMillis(deadlineNanos - System.nanoTime());
+
+                    responseBuffer.clear();
+
+                    try {
+                        gpibTransport.prologixReadLine(readlineTerminationMode, responseBuffer,
+                                Math.max(1, remainingMs));
+                    } catch (TimeoutException e) {
+                        break;
+                    }
+
+                    replyNanos[collected] = System.nanoTime();
+                    timedOut[collected] = false;
+
+                    responseBuffer.flip();
+
+                    try {
+                        readings[collected] = AsciiNumberParser.parseDouble(responseBuffer);
+                    } catch (NumberFormatException e) {
+                        readings[collected] = Double.NaN;
+                    }
+                }
+            } finally {
+                long currentNanos = System.nanoTime();
+
+                for (int i = collected; i < count; i++) {
+                    readings[i] = Double.NaN;
+                    replyNanos[i] = currentNanos;
+                    timedOut[i] = true;
+                }
+
+                timeouts = count - collected;
+            }
+
+            if (timeouts > 0) {
+                waitOutReads(timeouts, timeoutMs);
+            }
+
+            triggers++;
+        }
+    }
+
+    /**
+     * Consumes the replies of reads still queued on the adapter, late or not,
+     * then clears whatever is left so none is framed by the next trigger.
+     * 
+     * @param readsOutstanding
+     * @param timeoutMs for each of the replies
+     * @throws InterruptedException
+     */
+    private void waitOutReads(int readsOutstanding, long timeoutMs) throws InterruptedException {
+        for (int i = 0; i < readsOutstanding; i++) {
+            responseBuffer.clear();
+
+            try {
+                gpibTransport.prologixReadLine(readlineTerminationMode, responseBuffer,
+                        Math.max(1, timeoutMs));
+            } catch (TimeoutException | IOException e) {
+                // Answered or given up on, either way no longer outstanding
+            }
+        }
+
+        gpibTransport.prologixClearReadBuffer();
+    }
+
+    /**
+     * Get's the number of instruments in the group.
+     * 
+     * @return count
+     */
+    public int getCount() {
+        return busAddresses.length;
+    }
+
+    /**
+     * Get's the bus address of an instrument.
+     * 
+     * @param index position of the instrument in the group
+     * @return busAddress
+     */
+    public BusAddress getBusAddress(int index) {
+        return busAddresses[index];
+    }
+
+    /**
+     * Get's the reading of an instrument from the last trigger.
+     * 
+     * @param index position of the instrument in the group
+     * @return reading
+     */
+    public double getReading(int index) {
+        return readings[index];
+    }
+
+    /**
+     * Check's if an instrument timed out in the last trigger, its reading is
+     * then NaN.
+     * 
+     * @param index position of the instrument in the group
+     * @return timedOut
+     */
+    public boolean isTimedOut(int index) {
+        return timedOut[index];
+    }
+
+    /**
+     * Get's the number of instruments that timed out in the last trigger.
+     * 
+     * @return timeouts
+     */
+    public int getTimeouts() {
+        return timeouts;
+    }
+
+    /**
+     * Get's when the last ++trg had been sent.
+     * 
+     * @return triggerNanos
+     */
+    public long getTriggerNanos() {
+        return triggerNanos;
+    }
+
+    /**
+     * Get's when the reading of an instrument from the last trigger was framed,
+     * or given up on when it timed out.
+     * 
+     * @param index position of the instrument in the group
+     * @return replyNanos
+     */
+    public long getReplyNanos(int index) {
+        return replyNanos[index];
+    }
+
+    /**
+     * Get's the time from the last ++trg to the last reading being framed.
+     * 
+     * @return collectionNanos
+     */
+    public long getCollectionNanos() {
+        return replyNanos[busAddresses.length - 1] - triggerNanos;
+    }
+
+    /**
+     * Get's the number of completed triggers.
+     * 
+     * @return triggers
+     */
+    public long getTriggers() {
+        return triggers;
+    }
+}
@@ -8,7 +8,7 @@
  * Author: Cody L. Wellman <zecoderex@gmail.com>
  * 
  * Created: July 06, 2022
- * Updated: July 11, 2022
+ * Updated: October 17, 2026
  */
 
 package xyz.zagdrath.gpiblib;
@@ -16,6 +16,7 @@ package xyz.zagdrath.gpiblib;
 public class Instrument {
     private String instrumentName;
     private BusAddress busAddress;
+    protected GpibTransport gpibTransport;
     private boolean poweredOn;
 
     public Instrument(String instrumentName, BusAddress busAddress) {
@@ -23,6 +24,12 @@ public class Instrument {
         this.busAddress = busAddress;
     }
 
+    public Instrument(String instrumentName, BusAddress busAddress, GpibTransport gpibTransport) {
+        this(instrumentName, busAddress);
+
+        this.gpibTransport = gpibTransport;
+    }
+
     /**
      * Get's the instrument name.
      * 
@@ -59,6 +66,24 @@ public class Instrument {
         this.busAddress = busAddress;
     }
 
+    /**
+     * Get's the transport the instrument is driven through.
+     * 
+     * @return gpibTransport
+     */
+    public GpibTransport getGpibTransport() {
+        return gpibTransport;
+    }
+
+    /**
+     * Set's the transport the instrument is driven through.
+     * 
+     * @param gpibTransport
+     */
+    public void setGpibTransport(GpibTransport gpibTransport) {
+        this.gpibTransport = gpibTransport;
+    }
+
     public void getPoweredOn() {
 
     }
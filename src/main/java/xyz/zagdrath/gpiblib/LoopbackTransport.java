@@ -0,0 +1,235 @@
+/*
+ * @(#)LoopbackTransport.java
+ * 
+ * Copyright (c) 2022 Cody L. Wellman. All rights reserved. This work is
+ * licensed under the terms of the MIT license which can be found in the
+ * root directory of this project.
+ * 
+ * Author: Cody L. Wellman <zecoderex@gmail.com>
+ * 
+ * Created: October 17, 2026
+ * Updated: October 17, 2026
+ */
+
+package xyz.zagdrath.gpiblib;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+
+/**
+ * In-memory transport that answers commands itself instead of sending them to
+ * hardware. Written bytes are split into commands on unescaped line feeds and
+ * unescaped the way a Prologix would, each command is handed to a Responder
+ * and whatever it replies is fed back into the read buffer on the writing
+ * thread. Used to exercise and benchmark the whole stack without an adapter.
+ */
+public class LoopbackTransport extends PrologixAdapter {
+    private final Responder responder;
+
+    private final ByteBuffer commandBuffer = ByteBuffer.allocate(commandBufferCapacity);
+    private final ByteBuffer replyBuffer = ByteBuffer.allocate(replyBufferCapacity);
+    private boolean escaped;
+    private boolean overflowed;
+
+    private final static int commandBufferCapacity = 4096;
+    private final static int replyBufferCapacity = 4096;
+
+    private final static byte lfByte = (byte) 10;
+    private final static byte escByte = (byte) 27;
+
+    /**
+     * Answers one command written to the transport.
+     */
+    public interface Responder {
+        /**
+         * Puts the reply to the command, if any, into the reply buffer.
+         * 
+         * @param command unescaped command without its terminator
+         * @param reply
+         */
+        void respond(ByteBuffer command, ByteBuffer reply);
+    }
+
+    /**
+     * Constructs a loopback answering with the default responder.
+     */
+    public LoopbackTransport() {
+        this(new DefaultResponder());
+    }
+
+    /**
+     * Constructs a loopback answering with the responder.
+     * 
+     * @param responder
+     */
+    public LoopbackTransport(Responder responder) {
+        if (responder == null) {
+            throw new IllegalArgumentException("ERROR: Invalid Responder");
+        }
+
+        this.responder = responder;
+    }
+
+    /**
+     * Get's the responder.
+     * 
+     * @return responder
+     */
+    public Responder getResponder() {
+        return responder;
+    }
+
+    @Override
+    public void closeConnection() {
+        invalidateBusAddress();
+    }
+
+    // Prologix Transmit
+
+    @Override
+    protected synchronized void prologixTransmit(ByteBuffer byteBuffer) throws IOException {
+        while (byteBuffer.hasRemaining()) {
+            byte b = byteBuffer.get();
+
+            if (escaped) {
+                escaped = false;
+            } else if (b == escByte) {
+                escaped = true;
+
+                continue;
+            } else if (b == lfByte) {
+                dispatch();
+
+                continue;
+            }
+
+            if (commandBuffer.hasRemaining()) {
+                commandBuffer.put(b);
+            } else {
+                overflowed = true;
+            }
+        }
+    }
+
+    private void dispatch() throws IOException {
+        if (overflowed) {
+            commandBuffer.clear();
+            overflowed = false;
+
+            throw new IOException("ERROR: Command Exceeds Buffer");
+        }
+
+        commandBuffer.flip();
+        replyBuffer.clear();
+
+        responder.respond(commandBuffer, replyBuffer);
+
+        replyBuffer.flip();
+
+        if (replyBuffer.hasRemaining()) {
+            // The reply is framed on this same thread, waiting for room
+            // would never end
+            prologixReceiveOrDrop(replyBuffer);
+        }
+
+        commandBuffer.clear();
+    }
+
+    // Default Responder
+
+    /**
+     * Answers ++ver, ++srq and ++spoll, and answers ++read with a fixed
+     * reading followed by the EOT character when ++eot_enable is set.
+     * Instrument commands are accepted and ignored.
+     */
+    public static class DefaultResponder implements Responder {
+        private volatile byte[] reading = encode("+1.0000000000E+06\r\n");
+
+        private boolean eotEnable;
+        private byte eotChar;
+
+        private final static byte[] readCommand = encode("++read");
+        private final static byte[] eotEnableCommand = encode("++eot_enable ");
+        private final static byte[] eotCharCommand = encode("++eot_char ");
+        private final static byte[] versionCommand = encode("++ver");
+        private final static byte[] srqCommand = encode("++srq");
+        private final static byte[] spollCommand = encode("++spoll");
+
+        private final static byte[] versionReply = encode("Prologix GPIB Loopback\n");
+        private final static byte[] zeroReply = encode("0\n");
+
+        /**
+         * Get's the reading returned to ++read.
+         * 
+         * @return reading
+         */
+        public String getReading() {
+            return new String(reading, Charset.forName("US-ASCII"));
+        }
+
+        /**
+         * Set's the reading returned to ++read, including its terminator.
+         * 
+         * @param reading
+         */
+        public void setReading(String reading) {
+            this.reading = encode(reading);
+        }
+
+        @Override
+        public void respond(ByteBuffer command, ByteBuffer reply) {
+            if (startsWith(command, eotEnableCommand)) {
+                eotEnable = parseArgument(command, eotEnableCommand.length) == 1;
+            } else if (startsWith(command, eotCharCommand)) {
+                eotChar = (byte) parseArgument(command, eotCharCommand.length);
+            } else if (startsWith(command, readCommand)) {
+                reply.put(reading);
+
+                if (eotEnable) {
+                    reply.put(eotChar);
+                }
+            } else if (startsWith(command, versionCommand)) {
+                reply.put(versionReply);
+            } else if (startsWith(command, srqCommand) || startsWith(command, spollCommand)) {
+                reply.put(zeroReply);
+            }
+        }
+
+        private static boolean startsWith(ByteBuffer command, byte[] prefix) {
+            if (command.remaining() < prefix.length) {
+                return false;
+            }
+
+            int position = command.position();
+
+            for (int i = 0; i < prefix.length; i++) {
+                if (command.get(position + i) != prefix[i]) {
+                    return false;
+                }
+            }
+
+            return true;
+        }
+
+        private static int parseArgument(ByteBuffer command, int offset) {
+            int value = 0;
+
+            for (int i = command.position() + offset; i < command.limit(); i++) {
+                byte b = command.get(i);
+
+                if (b < '0' || b > '9') {
+                    break;
+                }
+
+                value = value * 10 + (b - '0');
+            }
+
+            return value;
+        }
+
+        private static byte[] encode(String string) {
+            return string.getBytes(Charset.forName("US-ASCII"));
+        }
+    }
+}
@@ -0,0 +1,1767 @@
+/*
+ * @(#)PrologixAdapter.java
+ * 
+ * Copyright (c) 2022 Cody L. Wellman. All rights reserved. This work is
+ * licensed under the terms of the MIT license which can be found in the
+ * root directory of this project.
+ * 
+ * Author: Cody L. Wellman <zecoderex@gmail.com>
+ * 
+ * Created: October 17, 2026
+ * Updated: October 17, 2026
+ */
+
+package xyz.zagdrath.gpiblib;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.nio.charset.Charset;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.LinkedBlockingQueue;
+
+import jdk.jfr.EventType;
+
+import xyz.zagdrath.gpiblib.event.GpibReadEvent;
+import xyz.zagdrath.gpiblib.event.GpibWriteEvent;
+import xyz.zagdrath.gpiblib.util.CommandBytes;
+import xyz.zagdrath.gpiblib.util.ByteRingBuffer;
+import xyz.zagdrath.gpiblib.util.EncodedCommand;
+import xyz.zagdrath.gpiblib.util.ReadlineFramer;
+import xyz.zagdrath.gpiblib.util.ReadlineTerminationMode;
+
+/**
+ * Everything a Prologix controller does that does not depend on how bytes
+ * reach it: the read buffer and line framing, the command layer, batching and
+ * the bus address cache. Subclasses only move bytes in and out.
+ */
+public abstract class PrologixAdapter implements GpibTransport {
+    private final ByteBuffer writeBuffer = ByteBuffer.allocateDirect(writeBufferCapacity);
+
+    private final static int readBufferCapacity = 65536;
+    private final static int writeBufferCapacity = 4096;
+
+    /**
+     * Configures the Prologix with default settings.
+     * 
+     * @throws IOException
+     */
+    protected void defaultConfig() throws IOException {
+        beginBatch();
+
+        prologixWriteCommand(PrologixCommand.MODE, 1); // Set to controller mode
+        prologixWriteCommand(PrologixCommand.IFC); // Set to controller in charge
+        prologixWriteCommand(PrologixCommand.EOI, 1); // Enable EOI assertion with last character
+        prologixWriteCommand(PrologixCommand.EOS, 3); // Do not append anything
+        prologixWriteCommand(PrologixCommand.EOT_ENABLE, 0); // Do not append any character
+        prologixWriteCommand(PrologixCommand.AUTO, 0); // Do not auto address instruments
+
+        try {
+            flush(0);
+        } catch (InterruptedException | TimeoutException e) {
+            throw new IOException("ERROR: Could not Configure Prologix");
+        }
+    }
+
+    // Prologix Executor
+
+    private final static long executorKeepAliveSeconds = 30;
+
+    private final ThreadPoolExecutor transportExecutor = new ThreadPoolExecutor(0, 1,
+            executorKeepAliveSeconds, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), runnable -> {
+                Thread thread = new Thread(runnable, "GPIB Transport");
+
+                thread.setDaemon(true);
+
+                return thread;
+            });
+
+    /**
+     * Get's the executor that asynchronous operations on this transport run
+     * on. It has at most one thread, so tasks run one at a time in the order
+     * they were submitted and reach the wire in that order. The thread is only
+     * started when there is work and exits after 30 seconds without any, so
+     * an idle transport holds no thread and the executor never needs to be
+     * shut down.
+     * 
+     * @return transportExecutor
+     */
+    public Executor getTransportExecutor() {
+        return transportExecutor;
+    }
+
+    // Prologix Receive
+
+    private final TransportMetrics transportMetrics = new TransportMetrics();
+
+    private volatile IOException receiveFailure;
+
+    private final static EventType writeEventType = EventType.getEventType(GpibWriteEvent.class);
+    private final static EventType readEventType = EventType.getEventType(GpibReadEvent.class);
+
+    /**
+     * Hands as much of a chunk of received bytes to the read buffer as fits,
+     * advancing its position by the number taken. Whatever is left has to be
+     * handed over again once prologixAwaitReceiveSpace() reports room, so a
+     * full read buffer holds the receiving thread back instead of losing
+     * bytes. Only ever called from the transport's single receiving thread.
+     * 
+     * @param byteBuffer
+     * @return number of bytes taken
+     */
+    protected int prologixReceive(ByteBuffer byteBuffer) {
+        int bytesWritten = readBytes.write(byteBuffer);
+
+        if (bytesWritten > 0) {
+            transportMetrics.recordReceive(bytesWritten, bytesWritten, readBytes.available());
+        }
+
+        return bytesWritten;
+    }
+
+    /**
+     * Hands as many of the received bytes to the read buffer as fit. Only ever
+     * called from the transport's single receiving thread.
+     * 
+     * @param bytes
+     * @param offset
+     * @param length
+     * @return number of bytes taken
+     */
+    protected int prologixReceive(byte[] bytes, int offset, int length) {
+        int bytesWritten = readBytes.write(bytes, offset, length);
+
+        if (bytesWritten > 0) {
+            transportMetrics.recordReceive(bytesWritten, bytesWritten, readBytes.available());
+        }
+
+        return bytesWritten;
+    }
+
+    /**
+     * Hands a chunk of received bytes to the read buffer without waiting,
+     * bytes that do not fit are dropped and counted as an overrun. Only for
+     * transports that receive on the thread that reads the buffer, which
+     * could never see it drain.
+     * 
+     * @param byteBuffer
+     */
+    protected void prologixReceiveOrDrop(ByteBuffer byteBuffer) {
+        int bytesRead = byteBuffer.remaining();
+        int bytesWritten = readBytes.write(byteBuffer);
+
+        transportMetrics.recordReceive(bytesRead, bytesWritten, readBytes.available());
+
+        byteBuffer.position(byteBuffer.limit());
+    }
+
+    /**
+     * Get's the number of bytes the read buffer can take right now.
+     * 
+     * @return receiveSpace
+     */
+    protected int prologixReceiveSpace() {
+        return readBytes.remaining();
+    }
+
+    /**
+     * Waits for the reader to make room in a full read buffer.
+     * 
+     * @param timeoutMs
+     * @return true once a byte fits, false on timeout or once the read buffer
+     *         has been closed by a receive failure
+     * @throws InterruptedException
+     */
+    protected boolean prologixAwaitReceiveSpace(long timeoutMs) throws InterruptedException {
+        return readBytes.awaitSpace(1, System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMs));
+    }
+
+    /**
+     * Wakes the receiving thread if it is waiting for room in the read buffer,
+     * so that it notices it is being stopped.
+     */
+    protected void prologixReceiveWake() {
+        readBytes.wakeWriter();
+    }
+
+    /**
+     * Records that the connection was lost and no more bytes will be
+     * received. Reads waiting on the read buffer are woken and, once it has
+     * been drained, fail with an IOException rather than waiting out their
+     * timeout. Only ever called from the transport's single receiving thread.
+     * 
+     * @param receiveFailure
+     */
+    protected void prologixReceiveFailed(IOException receiveFailure) {
+        this.receiveFailure = receiveFailure;
+
+        readBytes.close();
+    }
+
+    /**
+     * Clears a recorded receive failure. Called before the receiving thread
+     * of a new connection starts.
+     */
+    protected void prologixReceiveOpened() {
+        receiveFailure = null;
+
+        readBytes.reopen();
+    }
+
+    /**
+     * Fails a read that ran out of bytes before its deadline.
+     * 
+     * @return the TimeoutException to throw
+     * @throws IOException if the connection was lost
+     */
+    private TimeoutException prologixReadFailed() throws IOException {
+        IOException receiveFailure = this.receiveFailure;
+
+        if (receiveFailure != null) {
+            // Whatever the adapter had addressed is unknown after a reconnect
+            invalidateBusAddress();
+
+            throw new IOException("ERROR: Connection Lost", receiveFailure);
+        }
+
+        transportMetrics.recordTimeout();
+
+        return new TimeoutException();
+    }
+
+    @Override
+    public TransportMetrics getTransportMetrics() {
+        return transportMetrics;
+    }
+
+    @Override
+    public long getBytesReceived() {
+        return transportMetrics.getBytesIn();
+    }
+
+    @Override
+    public long getChunksReceived() {
+        return transportMetrics.getChunksIn();
+    }
+
+    @Override
+    public long getBytesOverrun() {
+        return transportMetrics.getBytesOverrun();
+    }
+
+    @Override
+    public long getLastReceiveNanos() {
+        return transportMetrics.getLastReceiveNanos();
+    }
+
+    // Prologix Read Raw
+
+    private final ByteRingBuffer readBytes = new ByteRingBuffer(readBufferCapacity);
+
+    private final ByteBuffer lineBuffer = ByteBuffer.allocate(readBufferCapacity);
+
+    /**
+     * Reads one line from the read buffer, without its terminator.
+     * 
+     * @param readlineTerminationMode
+     * @param timeoutMs
+     * @return the line
+     * @throws IOException
+     * @throws InterruptedException
+     * @throws TimeoutException
+     */
+    public byte[] prologixReadLine(ReadlineTerminationMode readlineTerminationMode, long timeoutMs)
+            throws IOException, InterruptedException, TimeoutException {
+        lineBuffer.clear();
+
+        int lineLength = prologixReadLine(readlineTerminationMode, lineBuffer, timeoutMs);
+
+        return Arrays.copyOf(lineBuffer.array(), lineLength);
+    }
+
+    /**
+     * Reads one line from the read buffer into the byte buffer, without its
+     * terminator. The line is written at the buffer's position, which is
+     * advanced past it. Nothing is allocated, so a caller that reuses the byte
+     * buffer frames lines without producing garbage.
+     * 
+     * @param readlineTerminationMode
+     * @param line
+     * @param timeoutMs
+     * @return length of the line
+     * @throws IOException
+     * @throws InterruptedException
+     * @throws TimeoutException
+     */
+    public int prologixReadLine(ReadlineTerminationMode readlineTerminationMode, ByteBuffer line,
+            long timeoutMs) throws IOException, InterruptedException, TimeoutException {
+        if (timeoutMs <= 0) {
+            transportMetrics.recordTimeout();
+
+            throw new TimeoutException();
+        }
+
+        GpibReadEvent gpibReadEvent = null;
+
+        if (readEventType.isEnabled()) {
+            gpibReadEvent = new GpibReadEvent();
+            gpibReadEvent.begin();
+        }
+
+        long startNanos = System.nanoTime();
+        long deadlineNanos = startNanos + TimeUnit.MILLISECONDS.toNanos(timeoutMs);
+        int lineLength = -1;
+
+        try {
+            lineLength = ReadlineFramer.readLine(readBytes, readlineTerminationMode, line,
+                    deadlineNanos);
+
+            transportMetrics.recordReadLine(System.nanoTime() - startNanos);
+
+            return lineLength;
+        } catch (TimeoutException e) {
+            throw prologixReadFailed();
+        } finally {
+            if (gpibReadEvent != null) {
+                gpibReadEvent.end();
+
+                if (gpibReadEvent.shouldCommit()) {
+                    gpibReadEvent.transport = getClass().getSimpleName();
+                    gpibReadEvent.busAddress = getAddressedBusAddressURL();
+                    gpibReadEvent.terminationMode = readlineTerminationMode.name();
+                    gpibReadEvent.size = Math.max(0, lineLength);
+                    gpibReadEvent.timedOut = lineLength < 0;
+                    gpibReadEvent.commit();
+                }
+            }
+        }
+    }
+
+    public void prologixClearReadBuffer() {
+        this.readBytes.clear();
+    }
+
+    // Prologix Transmit
+
+    /**
+     * Sends every remaining byte of the buffer to the adapter.
+     * 
+     * @param byteBuffer
+     * @throws IOException
+     */
+    protected abstract void prologixTransmit(ByteBuffer byteBuffer) throws IOException;
+
+    /**
+     * Sends every remaining byte of the buffers to the adapter. Transports that
+     * support gathering writes override this to send them in one call.
+     * 
+     * @param byteBuffers
+     * @param count
+     * @throws IOException
+     */
+    protected void prologixTransmit(ByteBuffer[] byteBuffers, int count) throws IOException {
+        for (int i = 0; i < count; i++) {
+            prologixTransmit(byteBuffers[i]);
+        }
+    }
+
+    // Prologix Write Raw
+
+    /**
+     * Sends bytes to the adapter, or queues them when a batch is open.
+     * 
+     * @param byteBuffer
+     * @throws IOException
+     */
+    protected void prologixWriteRaw(ByteBuffer byteBuffer) throws IOException {
+        if (batching) {
+            prologixQueueBatch(byteBuffer);
+
+            return;
+        }
+
+        transportMetrics.recordBytesOut(byteBuffer.remaining());
+
+        prologixTransmit(byteBuffer);
+    }
+
+    private void prologixWriteRaw(ByteBuffer[] byteBuffers, int count) throws IOException {
+        long bytes = 0;
+
+        for (int i = 0; i < count; i++) {
+            bytes += byteBuffers[i].remaining();
+        }
+
+        transportMetrics.recordBytesOut(bytes);
+
+        prologixTransmit(byteBuffers, count);
+    }
+
+    private void prologixWriteRaw(byte[] bytes) throws IOException, IllegalArgumentException {
+        if (bytes == null) {
+            throw new IllegalArgumentException("ERROR: Invalid Bytes");
+        }
+
+        if (bytes.length > writeBuffer.capacity()) {
+            prologixWriteRaw(ByteBuffer.wrap(bytes));
+
+            return;
+        }
+
+        writeBuffer.clear();
+        writeBuffer.put(bytes);
+        writeBuffer.flip();
+
+        prologixWriteRaw(writeBuffer);
+    }
+
+    private void prologixWriteRaw(String string) throws IOException, IllegalArgumentException {
+        if (string == null) {
+            throw new IllegalArgumentException("ERROR: Invalid String");
+        }
+
+        if (string.length() > writeBuffer.capacity()) {
+            prologixWriteRaw(string.getBytes(Charset.forName("US-ASCII")));
+
+            return;
+        }
+
+        writeBuffer.clear();
+
+        for (int i = 0; i < string.length(); i++) {
+            char c = string.charAt(i);
+
+            writeBuffer.put(c < 0x80 ? (byte) c : (byte) '?');
+        }
+
+        writeBuffer.flip();
+
+        prologixWriteRaw(writeBuffer);
+    }
+
+    // Prologix Batch
+
+    private final static int batchBufferCapacity = 16384;
+    private final static int maxBatchCommands = 64;
+
+    private final ByteBuffer batchBuffer = ByteBuffer.allocateDirect(batchBufferCapacity);
+    private final ByteBuffer[] batchSegments = new ByteBuffer[maxBatchCommands];
+    private final int[] batchOffsets = new int[maxBatchCommands + 1];
+    private final ReadlineTerminationMode[] batchReplies =
+            new ReadlineTerminationMode[maxBatchCommands];
+
+    private boolean batching;
+    private int batchCount;
+
+    {
+        for (int i = 0; i < maxBatchCommands; i++) {
+            batchSegments[i] = batchBuffer.duplicate();
+        }
+    }
+
+    /**
+     * Starts queueing writes instead of sending them. Every command written
+     * until flush() is held back and then sent in a single gathering write.
+     * Only commands may be queued, methods that read a response must not be
+     * called while a batch is open.
+     * 
+     * @throws IOException
+     */
+    public void beginBatch() throws IOException {
+        if (batching) {
+            throw new IOException("ERROR: Batch Already Open");
+        }
+
+        batching = true;
+        batchCount = 0;
+        batchBuffer.clear();
+    }
+
+    /**
+     * Check's if a batch is open.
+     * 
+     * @return batching
+     */
+    public boolean isBatching() {
+        return batching;
+    }
+
+    /**
+     * Marks the most recently queued command as producing one line in reply,
+     * which flush() will frame and hand back in the command's slot.
+     * 
+     * @param readlineTerminationMode
+     * @throws IOException
+     */
+    public void batchExpectReply(ReadlineTerminationMode readlineTerminationMode)
+            throws IOException {
+        if (!batching || batchCount == 0) {
+            throw new IOException("ERROR: No Batched Command");
+        }
+
+        batchReplies[batchCount - 1] = readlineTerminationMode;
+    }
+
+    /**
+     * Sends every queued command in one gathering write, then frames the
+     * expected replies in the order their commands were queued.
+     * 
+     * @param timeoutMs for all of the replies together
+     * @return replies indexed by the position of their command in the batch,
+     *         null for commands without a reply
+     * @throws IOException
+     * @throws InterruptedException
+     * @throws TimeoutException
+     */
+    public byte[][] flush(long timeoutMs) throws IOException, InterruptedException, TimeoutException {
+        if (!batching) {
+            throw new IOException("ERROR: No Batch Open");
+        }
+
+        batching = false;
+
+        int batchCount = this.batchCount;
+        long startNanos = System.nanoTime();
+
+        try {
+            for (int i = 0; i < batchCount; i++) {
+                batchSegments[i].limit(batchOffsets[i + 1]);
+                batchSegments[i].position(batchOffsets[i]);
+            }
+
+            try {
+                prologixWriteRaw(batchSegments, batchCount);
+            } catch (IOException e) {
+                invalidateBusAddress();
+
+                throw e;
+            }
+
+            byte[][] replies = new byte[batchCount][];
+            long deadlineNanos = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMs);
+
+            for (int i = 0; i < batchCount; i++) {
+                if (batchReplies[i] != null) {
+                    long remainingMs = TimeUnit.NANOSECONDS.toMillis(deadlineNanos - System.nanoTime());
+
+                    replies[i] = prologixReadLine(batchReplies[i], Math.max(1, remainingMs));
+                }
+            }
+
+            transportMetrics.recordBatch(System.nanoTime() - startNanos, batchCount);
+
+            return replies;
+        } finally {
+            resetBatch();
+        }
+    }
+
+    /**
+     * Closes the batch without sending anything, for when queueing its
+     * commands failed part way. The bus address cache is invalidated, since a
+     * queued ++addr that never went out has already updated it.
+     */
+    public void abandonBatch() {
+        if (!batching) {
+            return;
+        }
+
+        batching = false;
+
+        resetBatch();
+
+        invalidateBusAddress();
+    }
+
+    private void resetBatch() {
+        for (int i = 0; i < batchCount; i++) {
+            batchReplies[i] = null;
+            batchSegments[i].clear();
+        }
+
+        batchCount = 0;
+        batchBuffer.clear();
+    }
+
+    private void prologixQueueBatch(ByteBuffer byteBuffer) throws IOException {
+        if (batchCount == maxBatchCommands || byteBuffer.remaining() > batchBuffer.remaining()) {
+            throw new IOException("ERROR: Batch Full");
+        }
+
+        batchOffsets[batchCount] = batchBuffer.position();
+
+        batchBuffer.put(byteBuffer);
+
+        batchCount++;
+
+        batchOffsets[batchCount] = batchBuffer.position();
+    }
+
+    // Prologix Write Cooked
+
+    private final static byte lfByte = (byte) 10;
+    private final static byte crByte = (byte) 13;
+    private final static byte escByte = (byte) 27;
+    private final static byte plusByte = (byte) 43;
+
+    private final static byte prologixCommandTerminator = lfByte;
+
+    /**
+     * Writes an instrument command, escaping CR, LF, ESC and + for the Prologix
+     * and appending the terminator. The bytes are escaped straight into the
+     * outgoing buffer, runs without special bytes are copied in bulk, and a
+     * command larger than the buffer is sent in several writes.
+     * 
+     * @param bytes
+     * @throws IOException
+     * @throws IllegalArgumentException
+     */
+    public void prologixWriteCooked(byte[] bytes) throws IOException, IllegalArgumentException {
+        if (bytes == null) {
+            throw new IllegalArgumentException("ERROR: Invalid Bytes");
+        }
+
+        writeBuffer.clear();
+
+        putEscaped(bytes, 0, bytes.length);
+
+        prologixWriteTerminated(null);
+    }
+
+    /**
+     * Writes an instrument command the same way as prologixWriteCooked(byte[]),
+     * encoding each character as one ASCII byte without an intermediate array.
+     * 
+     * @param string
+     * @throws IOException
+     * @throws IllegalArgumentException
+     */
+    public void prologixWriteCooked(String string) throws IOException, IllegalArgumentException {
+        if (string == null) {
+            throw new IllegalArgumentException("ERROR: Invalid String");
+        }
+
+        writeBuffer.clear();
+
+        putEscaped(string);
+
+        prologixWriteTerminated(string);
+    }
+
+    /**
+     * Copies bytes into the outgoing buffer, escaping CR, LF, ESC and +. Each
+     * pass scans for the next special byte and copies the run before it with
+     * one put, the buffer is sent whenever it fills.
+     * 
+     * @param bytes
+     * @param offset
+     * @param length
+     * @throws IOException
+     */
+    private void putEscaped(byte[] bytes, int offset, int length) throws IOException {
+        int index = offset;
+        int end = offset + length;
+
+        while (index < end) {
+            if (writeBuffer.remaining() < 2) {
+                prologixWriteBuffered();
+            }
+
+            int runEnd = Math.min(end, index + writeBuffer.remaining() - 1);
+            int run = index;
+
+            while (run < runEnd && !isEscaped(bytes[run])) {
+                run++;
+            }
+
+            writeBuffer.put(bytes, index, run - index);
+
+            index = run;
+
+            if (run < runEnd) {
+                writeBuffer.put(escByte);
+                writeBuffer.put(bytes[index++]);
+            }
+        }
+    }
+
+    private void putEscaped(String string) throws IOException {
+        int length = string.length();
+
+        for (int i = 0; i < length; i++) {
+            if (writeBuffer.remaining() < 2) {
+                prologixWriteBuffered();
+            }
+
+            char c = string.charAt(i);
+            byte b = c < 0x80 ? (byte) c : (byte) '?';
+
+            if (isEscaped(b)) {
+                writeBuffer.put(escByte);
+            }
+
+            writeBuffer.put(b);
+        }
+    }
+
+    /**
+     * Copies the payload into the outgoing buffer, escaping CR, LF, ESC and +,
+     * and sends the buffer whenever it fills.
+     * 
+     * @param payload
+     * @throws IOException
+     */
+    private void putEscaped(ByteBuffer payload) throws IOException {
+        while (payload.hasRemaining()) {
+            if (writeBuffer.remaining() < 2) {
+                prologixWriteBuffered();
+            }
+
+            int start = payload.position();
+            int end = start + Math.min(payload.remaining(), writeBuffer.remaining() - 1);
+            int run = start;
+
+            while (run < end && !isEscaped(payload.get(run))) {
+                run++;
+            }
+
+            int limit = payload.limit();
+
+            payload.limit(run);
+            writeBuffer.put(payload);
+            payload.limit(limit);
+
+            if (run < end) {
+                writeBuffer.put(escByte);
+                writeBuffer.put(payload.get());
+            }
+        }
+    }
+
+    private void prologixWriteBuffered() throws IOException {
+        writeBuffer.flip();
+
+        prologixWriteRaw(writeBuffer);
+
+        writeBuffer.clear();
+    }
+
+    private static boolean isEscaped(byte b) {
+        return b == lfByte || b == crByte || b == escByte || b == plusByte;
+    }
+
+    /**
+     * Appends the terminator to the outgoing buffer and writes it.
+     * 
+     * @param command the command text for the metrics and events, if known
+     * @throws IOException
+     */
+    private void prologixWriteTerminated(String command) throws IOException {
+        if (!writeBuffer.hasRemaining()) {
+            prologixWriteBuffered();
+        }
+
+        writeBuffer.put(prologixCommandTerminator);
+        writeBuffer.flip();
+
+        prologixWriteRecorded(writeBuffer, null, command, false);
+    }
+
+    // Prologix Write Command
+
+    public void prologixWriteCommand(String command) throws IOException, IllegalArgumentException {
+        if (command == null || command.length() < 2) {
+            throw new IllegalArgumentException("ERROR: Invalid Command");
+        }
+
+        if (!command.startsWith("++")) {
+            throw new IllegalArgumentException("ERROR: Invalid Command");
+        }
+
+        if (command.length() >= writeBuffer.capacity()) {
+            throw new IllegalArgumentException("ERROR: Invalid Command");
+        }
+
+        writeBuffer.clear();
+
+        for (int i = 0; i < command.length(); i++) {
+            char c = command.charAt(i);
+
+            writeBuffer.put(c < 0x80 ? (byte) c : (byte) '?');
+        }
+
+        writeBuffer.put(prologixCommandTerminator);
+        writeBuffer.flip();
+
+        if (command.startsWith("++addr ") || command.startsWith("++rst")
+                || command.startsWith("++ifc")) {
+            invalidateBusAddress();
+        }
+
+        prologixWriteRecorded(writeBuffer, null, command, true);
+    }
+
+    public void prologixWriteCommand(PrologixCommand command) throws IOException {
+        if (command == PrologixCommand.RESET || command == PrologixCommand.IFC) {
+            invalidateBusAddress();
+        }
+
+        prologixWriteEncoded(command);
+    }
+
+    public void prologixWriteCommand(PrologixCommand command, int value) throws IOException {
+        if (command == PrologixCommand.ADDRESS) {
+            invalidateBusAddress();
+        }
+
+        prologixWriteEncoded(command, value);
+    }
+
+    private void prologixWriteCommand(PrologixCommand command, BusAddress busAddress)
+            throws IOException, IllegalArgumentException {
+        if (busAddress == null) {
+            throw new IllegalArgumentException("ERROR: Invalid Bus Address");
+        }
+
+        writeBuffer.clear();
+
+        if (busAddress.hasBusAddressSecondary()) {
+            command.writeTo(writeBuffer, busAddress.getBusAddressPrimary(),
+                    busAddress.getBusAddressSecondary() & 0xff);
+        } else {
+            command.writeTo(writeBuffer, busAddress.getBusAddressPrimary());
+        }
+
+        writeBuffer.flip();
+
+        prologixWriteRecorded(writeBuffer, command, null, true);
+    }
+
+    // Prologix Write Encoded
+
+    /**
+     * Writes a pre-encoded command. The command's bytes are copied into the
+     * outgoing buffer as they are, so instrument commands must already be
+     * cooked.
+     * 
+     * @param encodedCommand
+     * @throws IOException
+     */
+    public void prologixWriteEncoded(EncodedCommand encodedCommand) throws IOException {
+        writeBuffer.clear();
+
+        encodedCommand.writeTo(writeBuffer);
+
+        writeBuffer.flip();
+
+        prologixWriteRecorded(writeBuffer, encodedCommand, null,
+                encodedCommand instanceof PrologixCommand);
+    }
+
+    /**
+     * Writes a pre-encoded command with an integer argument.
+     * 
+     * @param encodedCommand
+     * @param value
+     * @throws IOException
+     */
+    public void prologixWriteEncoded(EncodedCommand encodedCommand, int value) throws IOException {
+        writeBuffer.clear();
+
+        encodedCommand.writeTo(writeBuffer, value);
+
+        writeBuffer.flip();
+
+        prologixWriteRecorded(writeBuffer, encodedCommand, null,
+                encodedCommand instanceof PrologixCommand);
+    }
+
+    /**
+     * Writes a pre-encoded command with a fixed point argument.
+     * 
+     * @param encodedCommand
+     * @param value
+     * @param fractionDigits
+     * @throws IOException
+     */
+    public void prologixWriteEncoded(EncodedCommand encodedCommand, double value,
+            int fractionDigits) throws IOException {
+        writeBuffer.clear();
+
+        encodedCommand.writeTo(writeBuffer, value, fractionDigits);
+
+        writeBuffer.flip();
+
+        prologixWriteRecorded(writeBuffer, encodedCommand, null,
+                encodedCommand instanceof PrologixCommand);
+    }
+
+    /**
+     * Writes the buffer and records how long it took in the metrics and, when
+     * enabled, as a Flight Recorder event. Writes queued in a batch are timed
+     * as part of the batch instead.
+     * 
+     * @param byteBuffer
+     * @param encodedCommand the command, or null if it was not pre-encoded
+     * @param command the command text when there is no encoded command
+     * @param controllerCommand
+     * @throws IOException
+     */
+    private void prologixWriteRecorded(ByteBuffer byteBuffer, EncodedCommand encodedCommand,
+            String command, boolean controllerCommand) throws IOException {
+        int size = byteBuffer.remaining();
+        GpibWriteEvent gpibWriteEvent = null;
+
+        if (writeEventType.isEnabled()) {
+            gpibWriteEvent = new GpibWriteEvent();
+            gpibWriteEvent.begin();
+        }
+
+        long startNanos = System.nanoTime();
+
+        prologixWriteRaw(byteBuffer);
+
+        if (!batching) {
+            transportMetrics.recordWrite(encodedCommand, controllerCommand,
+                    System.nanoTime() - startNanos);
+        }
+
+        if (gpibWriteEvent != null) {
+            gpibWriteEvent.end();
+
+            if (gpibWriteEvent.shouldCommit()) {
+                gpibWriteEvent.transport = getClass().getSimpleName();
+                gpibWriteEvent.busAddress = getAddressedBusAddressURL();
+                gpibWriteEvent.command = encodedCommand != null ? encodedCommand.getCommand() : command;
+                gpibWriteEvent.controllerCommand = controllerCommand;
+                gpibWriteEvent.size = size;
+                gpibWriteEvent.batched = batching;
+                gpibWriteEvent.commit();
+            }
+        }
+    }
+
+    // Prologix Commands
+
+    private final static int noBusAddress = -1;
+
+    private int addressedPrimary = noBusAddress;
+    private int addressedSecondary = noBusAddress;
+
+    public String getBusAddress() throws IllegalArgumentException, IOException, InterruptedException, TimeoutException {
+        prologixClearReadBuffer();
+        prologixWriteCommand(PrologixCommand.ADDRESS);
+        return new String(prologixReadLine(ReadlineTerminationMode.LF, 10), Charset.forName("US-ASCII"));
+    }
+
+    /**
+     * Addresses an instrument. The currently addressed instrument is cached,
+     * so ++addr is only sent when the target actually changes.
+     * 
+     * @param busAddress
+     * @throws IOException
+     */
+    public void setBusAddress(BusAddress busAddress) throws IOException {
+        if (busAddress == null) {
+            throw new IllegalArgumentException("ERROR: Invalid Bus Address");
+        }
+
+        int busAddressPrimary = busAddress.getBusAddressPrimary();
+        int busAddressSecondary = busAddress.getBusAddressSecondary() & 0xff;
+
+        if (busAddressPrimary == addressedPrimary && busAddressSecondary == addressedSecondary) {
+            transportMetrics.recordAddressSwitchAvoided();
+
+            return;
+        }
+
+        invalidateBusAddress();
+
+        prologixWriteCommand(PrologixCommand.ADDRESS, busAddress);
+
+        addressedPrimary = busAddressPrimary;
+        addressedSecondary = busAddressSecondary;
+
+        transportMetrics.recordAddressSwitch();
+    }
+
+    /**
+     * Forgets the currently addressed instrument so the next setBusAddress()
+     * always sends ++addr. Done automatically on ++rst, ++ifc and reconnect.
+     */
+    public void invalidateBusAddress() {
+        addressedPrimary = noBusAddress;
+        addressedSecondary = noBusAddress;
+    }
+
+    /**
+     * Get's the URL of the instrument the cache says is addressed.
+     * 
+     * @return busAddressURL, or null when unknown
+     */
+    private String getAddressedBusAddressURL() {
+        int addressedPrimary = this.addressedPrimary;
+        int addressedSecondary = this.addressedSecondary;
+
+        if (addressedPrimary == noBusAddress) {
+            return null;
+        }
+
+        return addressedSecondary != 0
+                ? "GPIB:" + addressedPrimary + "," + addressedSecondary
+                : "GPIB:" + addressedPrimary;
+    }
+
+    /**
+     * Get's the number of times ++addr was sent by setBusAddress().
+     * 
+     * @return addressSwitches
+     */
+    public long getAddressSwitches() {
+        return transportMetrics.getAddressSwitches();
+    }
+
+    /**
+     * Get's the number of times setBusAddress() skipped ++addr because the
+     * instrument was already addressed.
+     * 
+     * @return addressSwitchesAvoided
+     */
+    public long getAddressSwitchesAvoided() {
+        return transportMetrics.getAddressSwitchesAvoided();
+    }
+
+    public String getAuto() throws IllegalArgumentException, IOException, InterruptedException, TimeoutException {
+        prologixClearReadBuffer();
+        prologixWriteCommand(PrologixCommand.AUTO);
+        return new String(prologixReadLine(ReadlineTerminationMode.LF, 10), Charset.forName("US-ASCII"));
+    }
+
+    public void setAuto(int value) throws IOException {
+        prologixWriteCommand(PrologixCommand.AUTO, value);
+    }
+
+    public void sendClear() throws IOException {
+        prologixWriteCommand(PrologixCommand.CLEAR);
+    }
+
+    public String getEOI() throws IllegalArgumentException, IOException, InterruptedException, TimeoutException {
+        prologixClearReadBuffer();
+        prologixWriteCommand(PrologixCommand.EOI);
+        return new String(prologixReadLine(ReadlineTerminationMode.LF, 10), Charset.forName("US-ASCII"));
+    }
+
+    public void setEOI(int value) throws IOException {
+        prologixWriteCommand(PrologixCommand.EOI, value);
+    }
+
+    public String getEOS() throws IllegalArgumentException, IOException, InterruptedException, TimeoutException {
+        prologixClearReadBuffer();
+        prologixWriteCommand(PrologixCommand.EOS);
+        return new String(prologixReadLine(ReadlineTerminationMode.LF, 10), Charset.forName("US-ASCII"));
+    }
+
+    public void setEOS(int value) throws IOException {
+        prologixWriteCommand(PrologixCommand.EOS, value);
+    }
+
+    public String getEOTEnable() throws IllegalArgumentException, IOException, InterruptedException, TimeoutException {
+        prologixClearReadBuffer();
+        prologixWriteCommand(PrologixCommand.EOT_ENABLE);
+        return new String(prologixReadLine(ReadlineTerminationMode.LF, 10), Charset.forName("US-ASCII"));
+    }
+
+    public void setEOTEnable(int value) throws IOException {
+        prologixWriteCommand(PrologixCommand.EOT_ENABLE, value);
+    }
+
+    public String getEOTChar() throws IllegalArgumentException, IOException, InterruptedException, TimeoutException {
+        prologixClearReadBuffer();
+        prologixWriteCommand(PrologixCommand.EOT_CHAR);
+        return new String(prologixReadLine(ReadlineTerminationMode.LF, 10), Charset.forName("US-ASCII"));
+    }
+
+    public void setEOTChar(int value) throws IOException {
+        prologixWriteCommand(PrologixCommand.EOT_CHAR, value);
+    }
+
+    public void sendIFC() throws IOException {
+        prologixWriteCommand(PrologixCommand.IFC);
+    }
+
+    public void sendLLO() throws IOException {
+        prologixWriteCommand(PrologixCommand.LLO);
+    }
+
+    public void sendLOC() throws IOException {
+        prologixWriteCommand(PrologixCommand.LOC);
+    }
+
+    public String getLON() throws IllegalArgumentException, IOException, InterruptedException, TimeoutException {
+        prologixClearReadBuffer();
+        prologixWriteCommand(PrologixCommand.LON);
+        return new String(prologixReadLine(ReadlineTerminationMode.LF, 10), Charset.forName("US-ASCII"));
+    }
+
+    public void setLON(int value) throws IOException {
+        prologixWriteCommand(PrologixCommand.LON, value);
+    }
+
+    public String getMode() throws IllegalArgumentException, IOException, InterruptedException, TimeoutException {
+        prologixClearReadBuffer();
+        prologixWriteCommand(PrologixCommand.MODE);
+        return new String(prologixReadLine(ReadlineTerminationMode.LF, 10), Charset.forName("US-ASCII"));
+    }
+
+    public void setMode(int value) throws IOException {
+        prologixWriteCommand(PrologixCommand.MODE, value);
+    }
+
+    public String getRead() throws IOException, InterruptedException, TimeoutException {
+        prologixClearReadBuffer();
+        prologixWriteCommand(PrologixCommand.READ);
+        return new String(prologixReadLine(ReadlineTerminationMode.LF, 10), Charset.forName("US-ASCII"));
+    }
+
+    // Prologix Read Bulk
+
+    private final static int bulkBufferCapacity = 4096;
+    private final static int maxBulkBufferCapacity = 16 * 1024 * 1024;
+
+    private final static String eoiTerminationMode = "EOI";
+    private final static String charTerminationMode = "CHAR";
+
+    private ByteBuffer bulkBuffer = ByteBuffer.allocateDirect(bulkBufferCapacity);
+    private byte eotMarker = (byte) 4;
+
+    /**
+     * Get's the character the controller is told to append at EOI during
+     * prologixReadEOI().
+     * 
+     * @return eotMarker
+     */
+    public int getEOTMarker() {
+        return eotMarker & 0xff;
+    }
+
+    /**
+     * Set's the character the controller is told to append at EOI during
+     * prologixReadEOI(). It must not occur in the responses read that way,
+     * the default is ASCII EOT.
+     * 
+     * @param eotMarker
+     * @throws IllegalArgumentException
+     */
+    public void setEOTMarker(int eotMarker) throws IllegalArgumentException {
+        if (eotMarker < 0 || eotMarker > 255) {
+            throw new IllegalArgumentException("ERROR: Invalid EOT Character");
+        }
+
+        this.eotMarker = (byte) eotMarker;
+    }
+
+    /**
+     * Reads the addressed instrument's whole response, up to EOI, with
+     * ++read eoi. The controller appends the EOT marker at EOI for the length
+     * of this one read, so the end is found without depending on the
+     * instrument's line terminators.
+     * 
+     * The response is moved out of the read buffer in bulk as it arrives, so
+     * it may be larger than the read buffer. It is returned in a direct buffer
+     * that grows as needed and is reused by the next bulk read.
+     * 
+     * @param timeoutMs for the whole response
+     * @return the response, without the EOT marker, ready to be read
+     * @throws IOException
+     * @throws InterruptedException
+     * @throws TimeoutException
+     */
+    public ByteBuffer prologixReadEOI(long timeoutMs)
+            throws IOException, InterruptedException, TimeoutException {
+        if (batching) {
+            throw new IOException("ERROR: Batch Open");
+        }
+
+        prologixClearReadBuffer();
+
+        writeBuffer.clear();
+
+        PrologixCommand.EOT_CHAR.writeTo(writeBuffer, eotMarker & 0xff);
+        PrologixCommand.EOT_ENABLE.writeTo(writeBuffer, 1);
+        PrologixCommand.READ_EOI.writeTo(writeBuffer);
+        PrologixCommand.EOT_ENABLE.writeTo(writeBuffer, 0);
+
+        writeBuffer.flip();
+
+        prologixWriteRecorded(writeBuffer, PrologixCommand.READ_EOI, null, true);
+
+        return prologixReadBulk(eotMarker, eoiTerminationMode, timeoutMs);
+    }
+
+    /**
+     * Reads the addressed instrument's response up to a character with
+     * ++read, in bulk the same way as prologixReadEOI().
+     * 
+     * @param terminator
+     * @param timeoutMs for the whole response
+     * @return the response, without the terminator, ready to be read
+     * @throws IOException
+     * @throws InterruptedException
+     * @throws TimeoutException
+     */
+    public ByteBuffer prologixReadUntil(int terminator, long timeoutMs)
+            throws IOException, InterruptedException, TimeoutException {
+        if (terminator < 0 || terminator > 255) {
+            throw new IllegalArgumentException("ERROR: Invalid Terminator");
+        }
+
+        if (batching) {
+            throw new IOException("ERROR: Batch Open");
+        }
+
+        prologixClearReadBuffer();
+        prologixWriteCommand(PrologixCommand.READ, terminator);
+
+        return prologixReadBulk((byte) terminator, charTerminationMode, timeoutMs);
+    }
+
+    /**
+     * Moves bytes from the read buffer into the bulk buffer until the
+     * terminator, which is consumed. Each pass scans and copies everything
+     * already buffered, the thread only waits when the read buffer is empty.
+     * 
+     * @param terminator
+     * @param terminationMode
+     * @param timeoutMs
+     * @return the bulk buffer, flipped
+     * @throws IOException
+     * @throws InterruptedException
+     * @throws TimeoutException
+     */
+    private ByteBuffer prologixReadBulk(byte terminator, String terminationMode, long timeoutMs)
+            throws IOException, InterruptedException, TimeoutException {
+        if (timeoutMs <= 0) {
+            transportMetrics.recordTimeout();
+
+            throw new TimeoutException();
+        }
+
+        GpibReadEvent gpibReadEvent = null;
+
+        if (readEventType.isEnabled()) {
+            gpibReadEvent = new GpibReadEvent();
+            gpibReadEvent.begin();
+        }
+
+        long startNanos = System.nanoTime();
+        long deadlineNanos = startNanos + TimeUnit.MILLISECONDS.toNanos(timeoutMs);
+        boolean complete = false;
+
+        bulkBuffer.clear();
+
+        try {
+            for (;;) {
+                int available = readBytes.available();
+
+                if (available > 0) {
+                    int index = readBytes.indexOf(terminator, 0, available);
+                    int length = index >= 0 ? index : available;
+
+                    ensureBulkBufferRemaining(length);
+
+                    readBytes.drain(bulkBuffer, length);
+
+                    if (index >= 0) {
+                        readBytes.skip(1);
+
+                        break;
+                    }
+                }
+
+                if (!readBytes.await(1, deadlineNanos)) {
+                    throw prologixReadFailed();
+                }
+            }
+
+            complete = true;
+
+            transportMetrics.recordBulkRead(System.nanoTime() - startNanos, bulkBuffer.position());
+
+            bulkBuffer.flip();
+
+            return bulkBuffer;
+        } finally {
+            if (gpibReadEvent != null) {
+                gpibReadEvent.end();
+
+                if (gpibReadEvent.shouldCommit()) {
+                    gpibReadEvent.transport = getClass().getSimpleName();
+                    gpibReadEvent.busAddress = getAddressedBusAddressURL();
+                    gpibReadEvent.terminationMode = terminationMode;
+                    gpibReadEvent.size = complete ? bulkBuffer.limit() : bulkBuffer.position();
+                    gpibReadEvent.timedOut = !complete;
+                    gpibReadEvent.commit();
+                }
+            }
+        }
+    }
+
+    /**
+     * Grows the bulk buffer, at least doubling it, until the requested number
+     * of bytes fit after its position.
+     * 
+     * @param length
+     * @throws IOException if the buffer would grow past 16 MiB
+     */
+    private void ensureBulkBufferRemaining(int length) throws IOException {
+        if (bulkBuffer.remaining() >= length) {
+            return;
+        }
+
+        long required = (long) bulkBuffer.position() + length;
+
+        if (required > maxBulkBufferCapacity) {
+            readBytes.clear();
+
+            throw new IOException("ERROR: Response Exceeds Buffer");
+        }
+
+        int capacity = (int) Math.min(maxBulkBufferCapacity,
+                Math.max(required, (long) bulkBuffer.capacity() * 2));
+
+        ByteBuffer grown = ByteBuffer.allocateDirect(capacity);
+
+        bulkBuffer.flip();
+        grown.put(bulkBuffer);
+
+        bulkBuffer = grown;
+    }
+
+    // Prologix Binary Blocks
+
+    private final static int maxBlockLength = 999_999_999;
+
+    private final static String blockTerminationMode = "BLOCK";
+
+    private final GpibTransport.BlockConsumer bulkBlockConsumer = segment -> bulkBuffer.put(segment);
+
+    /**
+     * Reads an IEEE 488.2 definite length block, #<n><length><data>, from the
+     * addressed instrument with ++read eoi. Anything before the # is skipped.
+     * 
+     * The data is handed to the consumer as read-only views of the read buffer
+     * as it arrives, nothing is copied. A view is only valid for the duration
+     * of the call, and a block larger than the read buffer takes several
+     * calls. The terminator following the block is left in the read buffer
+     * and discarded by the next read.
+     * 
+     * @param blockConsumer
+     * @param timeoutMs for the whole block
+     * @return length of the block
+     * @throws IOException
+     * @throws InterruptedException
+     * @throws TimeoutException
+     */
+    public long prologixReadBinaryBlock(GpibTransport.BlockConsumer blockConsumer, long timeoutMs)
+            throws IOException, InterruptedException, TimeoutException {
+        if (blockConsumer == null) {
+            throw new IllegalArgumentException("ERROR: Invalid Block Consumer");
+        }
+
+        return prologixReadBinaryBlock(blockConsumer, false, timeoutMs);
+    }
+
+    /**
+     * Reads an IEEE 488.2 definite length block into the bulk buffer, which is
+     * reused by the next bulk read.
+     * 
+     * @param timeoutMs for the whole block
+     * @return read-only view of the data
+     * @throws IOException
+     * @throws InterruptedException
+     * @throws TimeoutException
+     */
+    public ByteBuffer prologixReadBinaryBlock(long timeoutMs)
+            throws IOException, InterruptedException, TimeoutException {
+        bulkBuffer.clear();
+
+        prologixReadBinaryBlock(bulkBlockConsumer, true, timeoutMs);
+
+        bulkBuffer.flip();
+
+        return bulkBuffer.asReadOnlyBuffer();
+    }
+
+    private long prologixReadBinaryBlock(GpibTransport.BlockConsumer blockConsumer, boolean bulk,
+            long timeoutMs) throws IOException, InterruptedException, TimeoutException {
+        if (batching) {
+            throw new IOException("ERROR: Batch Open");
+        }
+
+        if (timeoutMs <= 0) {
+            transportMetrics.recordTimeout();
+
+            throw new TimeoutException();
+        }
+
+        prologixClearReadBuffer();
+        prologixWriteCommand(PrologixCommand.READ_EOI);
+
+        GpibReadEvent gpibReadEvent = null;
+
+        if (readEventType.isEnabled()) {
+            gpibReadEvent = new GpibReadEvent();
+            gpibReadEvent.begin();
+        }
+
+        long startNanos = System.nanoTime();
+        long deadlineNanos = startNanos + TimeUnit.MILLISECONDS.toNanos(timeoutMs);
+        long length = -1;
+        long remaining = 0;
+
+        try {
+            length = prologixReadBlockHeader(deadlineNanos);
+            remaining = length;
+
+            if (bulk) {
+                ensureBulkBufferRemaining((int) length);
+            }
+
+            while (remaining > 0) {
+                if (!readBytes.await(1, deadlineNanos)) {
+                    throw prologixReadFailed();
+                }
+
+                ByteBuffer segment = readBytes.view((int) Math.min(remaining, readBytes.available()));
+                int segmentLength = segment.remaining();
+
+                blockConsumer.accept(segment);
+
+                readBytes.skip(segmentLength);
+
+                remaining -= segmentLength;
+            }
+
+            transportMetrics.recordBulkRead(System.nanoTime() - startNanos, (int) length);
+
+            return length;
+        } finally {
+            if (length < 0 || remaining > 0) {
+                // Drop the rest of the block rather than leave it for the
+                // next read to frame
+                readBytes.clear();
+            }
+
+            if (gpibReadEvent != null) {
+                gpibReadEvent.end();
+
+                if (gpibReadEvent.shouldCommit()) {
+                    gpibReadEvent.transport = getClass().getSimpleName();
+                    gpibReadEvent.busAddress = getAddressedBusAddressURL();
+                    gpibReadEvent.terminationMode = blockTerminationMode;
+                    gpibReadEvent.size = (int) Math.max(0, length - remaining);
+                    gpibReadEvent.timedOut = length < 0 || remaining > 0;
+                    gpibReadEvent.commit();
+                }
+            }
+        }
+    }
+
+    /**
+     * Consumes a block header up to the first byte of data.
+     * 
+     * @param deadlineNanos
+     * @return length of the data
+     * @throws IOException if the header is malformed or of indefinite length
+     * @throws InterruptedException
+     * @throws TimeoutException
+     */
+    private long prologixReadBlockHeader(long deadlineNanos)
+            throws IOException, InterruptedException, TimeoutException {
+        while (prologixReadBlockByte(deadlineNanos) != '#') {
+            // Skip anything the instrument sends ahead of the block
+        }
+
+        int digits = prologixReadBlockByte(deadlineNanos) - '0';
+
+        if (digits == 0) {
+            throw new IOException("ERROR: Indefinite Length Block");
+        }
+
+        if (digits < 1 || digits > 9) {
+            throw new IOException("ERROR: Invalid Block Header");
+        }
+
+        long length = 0;
+
+        for (int i = 0; i < digits; i++) {
+            int b = prologixReadBlockByte(deadlineNanos);
+
+            if (b < '0' || b > '9') {
+                throw new IOException("ERROR: Invalid Block Header");
+            }
+
+            length = length * 10 + (b - '0');
+        }
+
+        return length;
+    }
+
+    private int prologixReadBlockByte(long deadlineNanos)
+            throws IOException, InterruptedException, TimeoutException {
+        int b = readBytes.read(deadlineNanos);
+
+        if (b < 0) {
+            throw prologixReadFailed();
+        }
+
+        return b;
+    }
+
+    /**
+     * Writes an instrument command ending in an IEEE 488.2 definite length
+     * block, header #<n><length><data> followed by LF. The header and data are
+     * escaped for the Prologix as they are copied into the outgoing buffer,
+     * runs of bytes that need no escaping are copied in bulk, and a payload
+     * larger than the buffer is sent in several writes. The payload's position
+     * is advanced past the data.
+     * 
+     * @param header program header preceding the block, such as "DATA "
+     * @param payload
+     * @throws IOException
+     * @throws IllegalArgumentException
+     */
+    public void prologixWriteBinaryBlock(String header, ByteBuffer payload)
+            throws IOException, IllegalArgumentException {
+        if (header == null) {
+            throw new IllegalArgumentException("ERROR: Invalid Header");
+        }
+
+        if (payload == null || payload.remaining() > maxBlockLength) {
+            throw new IllegalArgumentException("ERROR: Invalid Payload");
+        }
+
+        if (batching) {
+            throw new IOException("ERROR: Batch Open");
+        }
+
+        int length = payload.remaining();
+        int digits = 1;
+
+        for (int value = length; value >= 10; value /= 10) {
+            digits++;
+        }
+
+        writeBuffer.clear();
+
+        putEscaped(header);
+
+        if (writeBuffer.remaining() < digits + 2) {
+            prologixWriteBuffered();
+        }
+
+        writeBuffer.put((byte) '#');
+        writeBuffer.put((byte) ('0' + digits));
+
+        if (writeBuffer.remaining() < digits) {
+            prologixWriteBuffered();
+        }
+
+        CommandBytes.putInt(writeBuffer, length);
+
+        putEscaped(payload);
+
+        prologixWriteTerminated(header);
+    }
+
+    public void setReadTimeout(int value) throws IOException {
+        prologixWriteCommand(PrologixCommand.READ_TMO_MS, value);
+    }
+
+    public void sendReset() throws IOException {
+        prologixWriteCommand(PrologixCommand.RESET);
+    }
+
+    public String getSaveConfig() throws IllegalArgumentException, IOException, InterruptedException, TimeoutException {
+        prologixClearReadBuffer();
+        prologixWriteCommand(PrologixCommand.SAVE_CONFIG);
+        return new String(prologixReadLine(ReadlineTerminationMode.LF, 10), Charset.forName("US-ASCII"));
+    }
+
+    public void setSaveConfig(int value) throws IOException {
+        prologixWriteCommand(PrologixCommand.SAVE_CONFIG, value);
+    }
+
+    public String sendSpoll() throws IOException, InterruptedException, TimeoutException {
+        prologixClearReadBuffer();
+        prologixWriteCommand(PrologixCommand.SPOLL);
+        return new String(prologixReadLine(ReadlineTerminationMode.LF, 10), Charset.forName("US-ASCII"));
+    }
+
+    public String sendSpoll(BusAddress busAddress) throws IOException, InterruptedException, TimeoutException {
+        prologixClearReadBuffer();
+        prologixWriteCommand(PrologixCommand.SPOLL, busAddress);
+        return new String(prologixReadLine(ReadlineTerminationMode.LF, 10), Charset.forName("US-ASCII"));
+    }
+
+    public String getSRQ() throws IOException, InterruptedException, TimeoutException {
+        prologixClearReadBuffer();
+        prologixWriteCommand(PrologixCommand.SRQ);
+        return new String(prologixReadLine(ReadlineTerminationMode.LF, 10), Charset.forName("US-ASCII"));
+    }
+
+    // Prologix Service Requests
+
+    private final static int pollBufferCapacity = 16;
+    private final static long pollTimeoutMs = 100;
+
+    private final ByteBuffer pollBuffer = ByteBuffer.allocate(pollBufferCapacity);
+
+    /**
+     * Check's whether any instrument is asserting SRQ.
+     * 
+     * @return true while SRQ is asserted
+     * @throws IOException
+     * @throws InterruptedException
+     * @throws TimeoutException
+     */
+    public boolean isServiceRequested() throws IOException, InterruptedException, TimeoutException {
+        return prologixQueryInt(PrologixCommand.SRQ, null) != 0;
+    }
+
+    /**
+     * Serial polls an instrument without changing the addressed instrument.
+     * 
+     * @param busAddress
+     * @return statusByte
+     * @throws IOException
+     * @throws InterruptedException
+     * @throws TimeoutException
+     */
+    public int serialPoll(BusAddress busAddress) throws IOException, InterruptedException, TimeoutException {
+        if (busAddress == null) {
+            throw new IllegalArgumentException("ERROR: Invalid Bus Address");
+        }
+
+        return prologixQueryInt(PrologixCommand.SPOLL, busAddress);
+    }
+
+    private int prologixQueryInt(PrologixCommand command, BusAddress busAddress)
+            throws IOException, InterruptedException, TimeoutException {
+        prologixClearReadBuffer();
+
+        if (busAddress == null) {
+            prologixWriteCommand(command);
+        } else {
+            prologixWriteCommand(command, busAddress);
+        }
+
+        pollBuffer.clear();
+
+        int length = prologixReadLine(ReadlineTerminationMode.OPTCR_LF, pollBuffer, pollTimeoutMs);
+        int value = 0;
+        boolean digitSeen = false;
+
+        for (int i = 0; i < length; i++) {
+            byte b = pollBuffer.get(i);
+
+            if (b >= '0' && b <= '9') {
+                value = value * 10 + (b - '0');
+                digitSeen = true;
+            } else if (b != ' ') {
+                break;
+            }
+        }
+
+        if (!digitSeen) {
+            throw new IOException("ERROR: Invalid Reply");
+        }
+
+        return value;
+    }
+
+    public String getStatus() throws IOException, InterruptedException, TimeoutException {
+        prologixClearReadBuffer();
+        prologixWriteCommand(PrologixCommand.STATUS);
+        return new String(prologixReadLine(ReadlineTerminationMode.LF, 10), Charset.forName("US-ASCII"));
+    }
+
+    public void sendStatus(int value) throws IOException {
+        prologixWriteCommand(PrologixCommand.STATUS, value);
+    }
+
+    // Prologix Group Trigger
+
+    private final static int maxTriggerAddresses = 15;
+
+    private final static byte[] triggerCommand =
+            PrologixCommand.TRIGGER.getCommand().getBytes(Charset.forName("US-ASCII"));
+
+    /**
+     * Sends Group Execute Trigger to the currently addressed instrument.
+     * 
+     * @throws IOException
+     */
+    public void sendTrigger() throws IOException {
+        prologixWriteCommand(PrologixCommand.TRIGGER);
+    }
+
+    /**
+     * Sends Group Execute Trigger to up to 15 instruments with a single ++trg,
+     * so they all start measuring within one bus transaction of each other.
+     * The addressed instrument is left unchanged.
+     * 
+     * @param busAddresses
+     * @param count number of addresses to trigger, from the start of the array
+     * @throws IOException
+     * @throws IllegalArgumentException
+     */
+    public void sendTrigger(BusAddress[] busAddresses, int count)
+            throws IOException, IllegalArgumentException {
+        if (busAddresses == null || count < 1 || count > maxTriggerAddresses
+                || count > busAddresses.length) {
+            throw new IllegalArgumentException("ERROR: Invalid Bus Address Count");
+        }
+
+        writeBuffer.clear();
+        writeBuffer.put(triggerCommand);
+
+        for (int i = 0; i < count; i++) {
+            BusAddress busAddress = busAddresses[i];
+
+            if (busAddress == null) {
+                throw new IllegalArgumentException("ERROR: Invalid Bus Address");
+            }
+
+            writeBuffer.put((byte) ' ');
+
+            CommandBytes.putInt(writeBuffer, busAddress.getBusAddressPrimary());
+
+            if (busAddress.hasBusAddressSecondary()) {
+                writeBuffer.put((byte) ' ');
+
+                CommandBytes.putInt(writeBuffer, busAddress.getBusAddressSecondary() & 0xff);
+            }
+        }
+
+        writeBuffer.put(prologixCommandTerminator);
+        writeBuffer.flip();
+
+        prologixWriteRecorded(writeBuffer, PrologixCommand.TRIGGER, null, true);
+    }
+
+    public String getVersion() throws IOException, InterruptedException, TimeoutException {
+        prologixClearReadBuffer();
+        prologixWriteCommand(PrologixCommand.VERSION);
+        return new String(prologixReadLine(ReadlineTerminationMode.LF, 10), Charset.forName("US-ASCII"));
+    }
+
+    public String getHelp() throws IOException, InterruptedException, TimeoutException {
+        prologixClearReadBuffer();
+        prologixWriteCommand(PrologixCommand.HELP);
+        return new String(prologixReadLine(ReadlineTerminationMode.LF, 10), Charset.forName("US-ASCII"));
+    }
+}
@@ -0,0 +1,76 @@
+/*
+ * @(#)PrologixCommand.java
+ * 
+ * Copyright (c) 2022 Cody L. Wellman. All rights reserved. This work is
+ * licensed under the terms of the MIT license which can be found in the
+ * root directory of this project.
+ * 
+ * Author: Cody L. Wellman <zecoderex@gmail.com>
+ * 
+ * Created: October 17, 2026
+ * Updated: October 17, 2026
+ */
+
+package xyz.zagdrath.gpiblib;
+
+import java.nio.ByteBuffer;
+
+import xyz.zagdrath.gpiblib.util.CommandBytes;
+import xyz.zagdrath.gpiblib.util.EncodedCommand;
+
+public enum PrologixCommand implements EncodedCommand {
+    ADDRESS("++addr"),
+    AUTO("++auto"),
+    CLEAR("++clr"),
+    EOI("++eoi"),
+    EOS("++eos"),
+    EOT_ENABLE("++eot_enable"),
+    EOT_CHAR("++eot_char"),
+    IFC("++ifc"),
+    LLO("++llo"),
+    LOC("++loc"),
+    LON("++lon"),
+    MODE("++mode"),
+    READ("++read"),
+    READ_EOI("++read eoi"),
+    READ_TMO_MS("++read_tmo_ms"),
+    RESET("++rst"),
+    SAVE_CONFIG("++savecfg"),
+    SPOLL("++spoll"),
+    SRQ("++srq"),
+    STATUS("++status"),
+    TRIGGER("++trg"),
+    VERSION("++ver"),
+    HELP("++help");
+
+    private final CommandBytes commandBytes;
+
+    private PrologixCommand(String command) {
+        this.commandBytes = new CommandBytes(command, " ", false);
+    }
+
+    @Override
+    public String getCommand() {
+        return commandBytes.getCommand();
+    }
+
+    @Override
+    public void writeTo(ByteBuffer byteBuffer) {
+        commandBytes.writeTo(byteBuffer);
+    }
+
+    @Override
+    public void writeTo(ByteBuffer byteBuffer, int value) {
+        commandBytes.writeTo(byteBuffer, value);
+    }
+
+    @Override
+    public void writeTo(ByteBuffer byteBuffer, int value, int secondValue) {
+        commandBytes.writeTo(byteBuffer, value, secondValue);
+    }
+
+    @Override
+    public void writeTo(ByteBuffer byteBuffer, double value, int fractionDigits) {
+        commandBytes.writeTo(byteBuffer, value, fractionDigits);
+    }
+}
@@ -8,36 +8,40 @@
  * Author: Cody L. Wellman <zecoderex@gmail.com>
  * 
  * Created: July 06, 2022
- * Updated: July 11, 2022
+ * Updated: October 17, 2026
  */
 
 package xyz.zagdrath.gpiblib;
 
 import java.net.URL;
-import java.util.List;
 import java.io.IOException;
-import java.util.ArrayList;
-import java.net.URLConnection;
-import java.io.BufferedReader;
-import java.io.BufferedWriter;
-import java.nio.charset.Charset;
-import java.io.InputStreamReader;
-import java.io.OutputStreamWriter;
+import java.nio.ByteBuffer;
+import java.nio.channels.Selector;
+import java.net.StandardSocketOptions;
+import java.net.InetSocketAddress;
+import java.nio.channels.SelectionKey;
 import javax.script.ScriptException;
-import java.io.ByteArrayOutputStream;
+import java.nio.channels.SocketChannel;
+import java.nio.channels.ClosedSelectorException;
 import java.util.concurrent.TimeUnit;
-import java.net.UnknownServiceException;
-import java.util.concurrent.TimeoutException;
-import java.util.concurrent.LinkedBlockingQueue;
 
-import xyz.zagdrath.gpiblib.util.ReadlineTerminationMode;
+import xyz.zagdrath.gpiblib.event.GpibConnectEvent;
 
-public class PrologixEthernet {
+public class PrologixEthernet extends PrologixAdapter {
     private URL prologixURL;
-    private URLConnection prologixURLConnection;
+    private SocketChannel prologixChannel;
 
-    private BufferedReader inputStream;
-    private BufferedWriter outputStream;
+    private Selector readSelector;
+    private Selector writeSelector;
+    private SelectionKey writeSelectionKey;
+
+    private final ByteBuffer readBuffer = ByteBuffer.allocateDirect(readChunkCapacity);
+
+    private final static int prologixPort = 1234;
+    private final static int readChunkCapacity = 8192;
+    private final static long readerPollMs = 100;
+    private final static long connectTimeoutMs = 5000;
+    private final static long writeTimeoutMs = 1000;
 
     /**
      * Constructs and configures the Prologix Ethernet.
@@ -60,22 +64,27 @@ public class PrologixEthernet {
         defaultConfig();
     }
 
-    public PrologixEthernet() {
-        
-    }
-
     /**
-     * Configures the Prologix Ethernet with default settings.
+     * Constructs and configures the Prologix Ethernet.
      * 
+     * @param prologixAddress
      * @throws IOException
+     * @throws IllegalArgumentException
+     * @throws ScriptException
      */
-    private void defaultConfig() throws IOException {
-        prologixWriteCommand(modeCommand + " 1"); // Set to controller mode
-        prologixWriteCommand(ifcCommand); // Set to controller in charge
-        prologixWriteCommand(eoiCommand + " 1"); // Enable EOI assertion with last character
-        prologixWriteCommand(eosCommand + " 3"); // Do not append anything
-        prologixWriteCommand(eotEnableCommand + " 0"); // Do not append any character
-        prologixWriteCommand(autoCommand + " 0"); // Do not auto address instruments
+    public PrologixEthernet(InetSocketAddress prologixAddress)
+            throws IOException, IllegalArgumentException, ScriptException {
+        if (prologixAddress == null) {
+            throw new IllegalArgumentException("ERROR: Invalid Address");
+        }
+
+        openConnection(prologixAddress);
+
+        defaultConfig();
+    }
+
+    public PrologixEthernet() {
+        
     }
 
     // Addressing
@@ -101,492 +110,328 @@ public class PrologixEthernet {
     // Network Connections
 
     /**
-     * Opens the network connection to the Prologix Ethernet.
+     * Opens the network connection to the Prologix Ethernet. The host is taken
+     * from the URL and the port defaults to the Prologix raw socket port 1234.
      * 
      * @param prologixURL
      * @throws ScriptException
      */
     public void openConnection(URL prologixURL) throws ScriptException {
-        prologixURLConnection = null;
-
-        try {
-            prologixURLConnection = prologixURL.openConnection();
-            prologixURLConnection.setDoOutput(true);
-            prologixURLConnection.connect();
-
-            inputStream = new BufferedReader(
-                    new InputStreamReader(prologixURLConnection.getInputStream()));
-            outputStream = new BufferedWriter(
-                    new OutputStreamWriter(prologixURLConnection.getOutputStream()));
-        } catch (NullPointerException e) {
-            throw new ScriptException("ERROR: Could not Open Network Connection");
-        } catch (UnknownServiceException e) {
-            throw new ScriptException("ERROR: Could not Open Network Connection");
-        } catch (IOException e) {
+        if (prologixURL == null || prologixURL.getHost() == null) {
             throw new ScriptException("ERROR: Could not Open Network Connection");
         }
+
+        int port = prologixURL.getPort() == -1 ? prologixPort : prologixURL.getPort();
+
+        openConnection(new InetSocketAddress(prologixURL.getHost(), port));
     }
 
     /**
-     * Closes the network connection to the Prologix Ethernet.
+     * Opens the network connection to the Prologix Ethernet. The channel is
+     * kept in non-blocking mode and waits are done on selectors so that every
+     * read and write can be bounded by a timeout.
      * 
-     * @throws IOException
+     * @param prologixAddress
+     * @throws ScriptException
      */
-    public void closeConnection() throws IOException {
-        try {
-            if (inputStream != null) {
-                inputStream.close();
-            }
-
-            if (outputStream != null) {
-                outputStream.close();
-            }
-        } catch (IOException e) {
-            throw new IOException("ERROR: Could not Close Network Connection");
-        }
-    }
-
-    // Prologix Ethernet Commands
-
-    private final static String addressCommand = "++addr";
-    private final static String autoCommand = "++auto";
-    private final static String clearCommand = "++clr";
-    private final static String eoiCommand = "++eoi";
-    private final static String eosCommand = "++eos";
-    private final static String eotEnableCommand = "++eot_enable";
-    private final static String eotCharCommand = "++eot_char";
-    private final static String ifcCommand = "++ifc";
-    private final static String lloCommand = "++llo";
-    private final static String locCommand = "++loc";
-    private final static String lonCommand = "++lon";
-    private final static String modeCommand = "++mode";
-    private final static String readCommand = "++read";
-    private final static String readTmoMsCommand = "++read_tmo_ms";
-    private final static String resetCommand = "++rst";
-    private final static String saveConfigCommand = "++savecfg";
-    private final static String spollCommand = "++spoll";
-    private final static String srqCommand = "++srq";
-    private final static String statusCommand = "++status";
-    private final static String triggerCommand = "++trg";
-    private final static String versionCommand = "++ver";
-    private final static String helpCommand = "++help";
-
-    // Prologix Read Raw
-
-    private LinkedBlockingQueue<Byte> readBytes = new LinkedBlockingQueue<>();
-
-    private byte prologixReadByte(long timeoutMs) throws TimeoutException, InterruptedException {
-        Byte byteRead = (byte) this.readBytes.poll(timeoutMs, TimeUnit.MILLISECONDS);
-
-        if (byteRead == null) {
-            throw new TimeoutException();
-        }
-
-        return byteRead;
-    }
-
-    private final static ReadlineTerminationMode readlineTerminationMode =
-            ReadlineTerminationMode.OPTCR_LF;
-
-    public byte[] prologixReadLine(ReadlineTerminationMode readlineTerminationMode, long timeoutMs)
-            throws IOException, InterruptedException, TimeoutException {
-        if (timeoutMs <= 0) {
-            throw new TimeoutException();
-        }
-
-        long deadlineMillis = System.currentTimeMillis() + timeoutMs;
+    public void openConnection(InetSocketAddress prologixAddress) throws ScriptException {
+        GpibConnectEvent gpibConnectEvent = new GpibConnectEvent();
 
-        ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream();
+        gpibConnectEvent.begin();
 
-        for (;;) {
-            long currentMillis = System.currentTimeMillis();
-
-            if (byteArrayOutputStream.size() > 0) {
-                throw new TimeoutException();
-            }
-
-            byte byteRead = prologixReadByte(deadlineMillis - currentMillis);
-
-            currentMillis = System.currentTimeMillis();
-
-            switch (readlineTerminationMode) {
-                case CR: {
-                    if (byteRead == 0x0d) {
-                        byte[] bytesRead = byteArrayOutputStream.toByteArray();
-
-                        return bytesRead;
-                    } else {
-                        byteArrayOutputStream.write(byteRead);
-                    }
-
-                    break;
-                }
-
-                case LF: {
-                    if (byteRead == 0x0a) {
-                        byte[] bytesRead = byteArrayOutputStream.toByteArray();
-
-                        return bytesRead;
-                    } else {
-                        byteArrayOutputStream.write(byteRead);
-                    }
-
-                    break;
-                }
-
-                case CR_LF: {
-                    if (byteRead == 0x0d) {
-                        byte nextByteRead = prologixReadByte(deadlineMillis - currentMillis);
-
-                        if (nextByteRead == 0x0a) {
-                            byte[] bytesRead = byteArrayOutputStream.toByteArray();
-
-                            byteArrayOutputStream.write(byteRead);
-                            byteArrayOutputStream.write(nextByteRead);
-
-                            return bytesRead;
-                        } else {
-                            throw new IOException();
-                        }
-                    } else {
-                        byteArrayOutputStream.write(byteRead);
-                    }
-
-                    break;
-                }
-
-                case OPTCR_LF: {
-                    switch (byteRead) {
-                        case 0x0d: {
-                            byte nextByteRead = prologixReadByte(deadlineMillis - currentMillis);
-
-                            if (nextByteRead == 0x0a) {
-                                byte[] bytesRead = byteArrayOutputStream.toByteArray();
-
-                                byteArrayOutputStream.write(byteRead);
-                                byteArrayOutputStream.write(nextByteRead);
-
-                                return bytesRead;
-                            } else {
-                                byteArrayOutputStream.write(byteRead);
-                                byteArrayOutputStream.write(nextByteRead);
-
-                                throw new IOException();
-                            }
-                        }
-
-                        case 0x0a: {
-                            byte[] bytesRead = byteArrayOutputStream.toByteArray();
-
-                            byteArrayOutputStream.write(byteRead);
+        try {
+            closeConnection();
 
-                            return bytesRead;
-                        }
+            prologixChannel = SocketChannel.open();
+            prologixChannel.configureBlocking(false);
+            prologixChannel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+            prologixChannel.setOption(StandardSocketOptions.SO_KEEPALIVE, true);
 
-                        default: {
-                            byteArrayOutputStream.write(byteRead);
+            readSelector = Selector.open();
+            writeSelector = Selector.open();
 
-                            break;
-                        }
-                    }
+            writeSelectionKey = prologixChannel.register(writeSelector, SelectionKey.OP_CONNECT);
 
-                    break;
+            if (!prologixChannel.connect(prologixAddress)) {
+                if (writeSelector.select(connectTimeoutMs) == 0) {
+                    throw new IOException("ERROR: Connection Timed Out");
                 }
 
-                case LF_CR: {
-                    if (byteRead == 0x0a) {
-                        byte nextByteRead = prologixReadByte(deadlineMillis - currentMillis);
-
-                        if (nextByteRead == 0x0d) {
-                            byte[] bytesRead = byteArrayOutputStream.toByteArray();
+                prologixChannel.finishConnect();
+            }
 
-                            byteArrayOutputStream.write(byteRead);
-                            byteArrayOutputStream.write(nextByteRead);
+            writeSelectionKey.interestOps(SelectionKey.OP_WRITE);
+            prologixChannel.register(readSelector, SelectionKey.OP_READ);
 
-                            return bytesRead;
-                        } else {
-                            byteArrayOutputStream.write(byteRead);
-                            byteArrayOutputStream.write(nextByteRead);
+            startReader(prologixAddress);
 
-                            throw new IOException();
-                        }
-                    } else {
-                        byteArrayOutputStream.write(byteRead);
-                    }
+            gpibConnectEvent.connected = true;
+        } catch (IOException e) {
+            try {
+                closeConnection();
+            } catch (IOException closeException) {
+                e.addSuppressed(closeException);
+            }
 
-                    break;
-                }
+            gpibConnectEvent.error = e.getMessage();
 
-                default: {
-                    throw new RuntimeException();
-                }
+            throw new ScriptException("ERROR: Could not Open Network Connection");
+        } finally {
+            gpibConnectEvent.end();
+
+            if (gpibConnectEvent.shouldCommit()) {
+                gpibConnectEvent.transport = getClass().getSimpleName();
+                gpibConnectEvent.host = prologixAddress.getHostString();
+                gpibConnectEvent.port = prologixAddress.getPort();
+                gpibConnectEvent.commit();
             }
         }
     }
 
-    public void prologixClearReadBuffer() {
-        List<Byte> drainedBytes = new ArrayList<>();
+    /**
+     * Closes the network connection to the Prologix Ethernet.
+     * 
+     * @throws IOException
+     */
+    public void closeConnection() throws IOException {
+        stopReader();
 
-        this.readBytes.drainTo(drainedBytes);
+        invalidateBusAddress();
 
-        if (!drainedBytes.isEmpty()) {
-            final byte[] bytes = new byte[drainedBytes.size()];
+        try {
+            if (readSelector != null) {
+                readSelector.close();
+            }
 
-            int i = 0;
+            if (writeSelector != null) {
+                writeSelector.close();
+            }
 
-            for (Byte b : drainedBytes) {
-                bytes[i++] = b;
+            if (prologixChannel != null) {
+                prologixChannel.close();
             }
+        } catch (IOException e) {
+            throw new IOException("ERROR: Could not Close Network Connection");
+        } finally {
+            readSelector = null;
+            writeSelector = null;
+            writeSelectionKey = null;
+            prologixChannel = null;
         }
     }
 
-    // Prologix Write Raw
-
-    private void prologixWriteRaw(byte[] bytes) throws IOException, IllegalArgumentException {
-        if (bytes == null) {
-            throw new IllegalArgumentException("ERROR: Invalid Bytes");
-        }
-
-        URLConnection prologixURLConnection = this.prologixURLConnection;
+    // Prologix Reader
 
-        if (prologixURLConnection == null) {
-            throw new IOException("ERROR: Invalid URL");
-        }
+    private Thread readerThread;
+    private volatile boolean readerRunning;
 
-        this.prologixURLConnection.getOutputStream().write(bytes);
-    }
+    /**
+     * Starts the thread that moves bytes from the channel into the read buffer
+     * as they arrive, independent of whoever is framing responses.
+     * 
+     * @param prologixAddress
+     */
+    private void startReader(InetSocketAddress prologixAddress) {
+        prologixReceiveOpened();
 
-    private void prologixWriteRaw(String string) throws IOException, IllegalArgumentException {
-        if (string == null) {
-            throw new IllegalArgumentException("ERROR: Invalid String");
-        }
+        readerRunning = true;
 
-        prologixWriteRaw(string.getBytes(Charset.forName("US-ASCII")));
+        readerThread = new Thread(this::prologixReaderLoop, "Prologix Reader " + prologixAddress);
+        readerThread.setDaemon(true);
+        readerThread.start();
     }
 
-    // Prologix Write Cooked
-
-    private final static byte lfByte = (byte) 10;
-    private final static byte crByte = (byte) 13;
-    private final static byte escByte = (byte) 27;
-    private final static byte plusByte = (byte) 43;
+    /**
+     * Stops the reader thread and waits for it to exit. The selector wake up,
+     * or the read buffer's when it is waiting for room, gets it out of its
+     * wait at once, and it must be gone before the channel is closed or a new
+     * reader starts filling the read buffer.
+     */
+    private void stopReader() {
+        Thread readerThread = this.readerThread;
 
-    private final static byte prologixCommandTerminator = lfByte;
+        readerRunning = false;
 
-    private byte[] prologixCookString(byte[] bytes) throws IllegalArgumentException {
-        if (bytes == null) {
-            throw new IllegalArgumentException("ERROR: Invalid Bytes");
+        if (readerThread == null) {
+            return;
         }
 
-        ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream();
+        Selector readSelector = this.readSelector;
 
-        for (byte b : bytes) {
-            switch (b) {
-                case lfByte:
-                case crByte:
-                case escByte:
-                case plusByte: {
-                    byteArrayOutputStream.write(escByte);
-                }
-                default: {
-                    byteArrayOutputStream.write(b);
-                }
-            }
+        if (readSelector != null) {
+            readSelector.wakeup();
         }
 
-        byteArrayOutputStream.write(prologixCommandTerminator);
+        prologixReceiveWake();
 
-        return byteArrayOutputStream.toByteArray();
-    }
-
-    public void prologixWriteCooked(byte[] bytes) throws IOException, IllegalArgumentException {
-        prologixWriteRaw(prologixCookString(bytes));
-    }
+        if (readerThread != Thread.currentThread()) {
+            boolean interrupted = false;
 
-    public void prologixWriteCooked(String string) throws IOException, IllegalArgumentException {
-        if (string == null) {
-            throw new IllegalArgumentException("ERROR: Invalid String");
-        }
-    }
-
-    // Prologix Write Command
-
-    public void prologixWriteCommand(String command) throws IOException, IllegalArgumentException {
-        if (command == null || command.length() < 2) {
-            throw new IllegalArgumentException("ERROR: Invalid Command");
-        }
+            while (readerThread.isAlive()) {
+                try {
+                    readerThread.join();
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
 
-        if (!command.startsWith("++")) {
-            throw new IllegalArgumentException("ERROR: Invalid Command");
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
         }
 
-        prologixWriteRaw(command
-                + new String(new byte[] {prologixCommandTerminator}, Charset.forName("US-ASCII")));
-    }
-
-    // Prologix Commands
-
-    public String getBusAddress() throws IllegalArgumentException, IOException, InterruptedException, TimeoutException {
-        prologixWriteCommand(addressCommand);
-        prologixClearReadBuffer();
-        return prologixReadLine(ReadlineTerminationMode.LF, 10).toString();
+        this.readerThread = null;
     }
 
-    public void setBusAddress(BusAddress busAddress) throws IOException {
-        prologixWriteCommand(addressCommand + "" + busAddress);
-    }
+    private void prologixReaderLoop() {
+        readBuffer.clear();
+        readBuffer.flip();
 
-    public String getAuto() throws IllegalArgumentException, IOException, InterruptedException, TimeoutException {
-        prologixWriteCommand(autoCommand);
-        prologixClearReadBuffer();
-        return prologixReadLine(ReadlineTerminationMode.LF, 10).toString();
-    }
+        try {
+            while (readerRunning) {
+                if (readBuffer.hasRemaining()) {
+                    // The read buffer is full, leave the socket unread until
+                    // there is room so TCP holds the adapter back
+                    if (prologixReceive(readBuffer) == 0) {
+                        prologixAwaitReceiveSpace(readerPollMs);
+                    }
 
-    public void setAuto(int value) throws IOException {
-        prologixWriteCommand(autoCommand + "" + value);
-    }
+                    continue;
+                }
 
-    public void sendClear() throws IOException {
-        prologixWriteCommand(clearCommand);
-    }
+                readBuffer.clear();
 
-    public String getEOI() throws IllegalArgumentException, IOException, InterruptedException, TimeoutException {
-        prologixWriteCommand(eoiCommand);
-        prologixClearReadBuffer();
-        return prologixReadLine(ReadlineTerminationMode.LF, 10).toString();
-    }
+                int bytesRead = prologixReadRaw(readBuffer, readerPollMs);
 
-    public void setEOI(int value) throws IOException {
-        prologixWriteCommand(eoiCommand + "" + value);
-    }
+                readBuffer.flip();
 
-    public String getEOS() throws IllegalArgumentException, IOException, InterruptedException, TimeoutException {
-        prologixWriteCommand(eosCommand);
-        prologixClearReadBuffer();
-        return prologixReadLine(ReadlineTerminationMode.LF, 10).toString();
+                if (bytesRead > 0) {
+                    prologixReceive(readBuffer);
+                }
+            }
+        } catch (IOException e) {
+            if (readerRunning) {
+                // Lost the connection rather than being stopped
+                prologixReceiveFailed(e);
+            }
+        } catch (ClosedSelectorException e) {
+            // Connection closed underneath the reader, nothing left to pump
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            readerRunning = false;
+        }
     }
 
-    public void setEOS(int value) throws IOException {
-        prologixWriteCommand(eosCommand + "" + value);
+    /**
+     * Check's whether the reader thread is running.
+     * 
+     * @return readerRunning
+     */
+    public boolean isReaderRunning() {
+        return readerRunning;
     }
 
-    public String getEOTEnable() throws IllegalArgumentException, IOException, InterruptedException, TimeoutException {
-        prologixWriteCommand(eotEnableCommand);
-        prologixClearReadBuffer();
-        return prologixReadLine(ReadlineTerminationMode.LF, 10).toString();
-    }
+    // Prologix Read Channel
 
-    public void setEOTEnable(int value) throws IOException {
-        prologixWriteCommand(eotEnableCommand + "" + value);
-    }
+    /**
+     * Reads whatever is available on the channel into the buffer, waiting up to
+     * the timeout for the first byte to arrive.
+     * 
+     * @param byteBuffer
+     * @param timeoutMs
+     * @return number of bytes read, zero on timeout
+     * @throws IOException
+     */
+    int prologixReadRaw(ByteBuffer byteBuffer, long timeoutMs) throws IOException {
+        SocketChannel prologixChannel = this.prologixChannel;
 
-    public String getEOTChar() throws IllegalArgumentException, IOException, InterruptedException, TimeoutException {
-        prologixWriteCommand(eotCharCommand);
-        prologixClearReadBuffer();
-        return prologixReadLine(ReadlineTerminationMode.LF, 10).toString();
-    }
+        if (prologixChannel == null) {
+            throw new IOException("ERROR: Not Connected");
+        }
 
-    public void setEOTChar(int value) throws IOException {
-        prologixWriteCommand(eotCharCommand + "" + value);
-    }
+        int bytesRead = prologixChannel.read(byteBuffer);
 
-    public void sendIFC() throws IOException {
-        prologixWriteCommand(ifcCommand);
-    }
+        if (bytesRead == 0 && timeoutMs > 0) {
+            readSelector.selectedKeys().clear();
 
-    public void sendLLO() throws IOException {
-        prologixWriteCommand(lloCommand);
-    }
+            if (readSelector.select(timeoutMs) > 0) {
+                bytesRead = prologixChannel.read(byteBuffer);
+            }
+        }
 
-    public void sendLOC() throws IOException {
-        prologixWriteCommand(locCommand);
-    }
+        if (bytesRead < 0) {
+            throw new IOException("ERROR: Connection Closed");
+        }
 
-    public String getLON() throws IllegalArgumentException, IOException, InterruptedException, TimeoutException {
-        prologixWriteCommand(lonCommand);
-        prologixClearReadBuffer();
-        return prologixReadLine(ReadlineTerminationMode.LF, 10).toString();
+        return bytesRead;
     }
 
-    public void setLON(int value) throws IOException {
-        prologixWriteCommand(lonCommand + "" + value);
-    }
+    // Prologix Transmit
 
-    public String getMode() throws IllegalArgumentException, IOException, InterruptedException, TimeoutException {
-        prologixWriteCommand(modeCommand);
-        prologixClearReadBuffer();
-        return prologixReadLine(ReadlineTerminationMode.LF, 10).toString();
-    }
+    @Override
+    protected void prologixTransmit(ByteBuffer byteBuffer) throws IOException {
+        SocketChannel prologixChannel = this.prologixChannel;
 
-    public void setMode(int value) throws IOException {
-        prologixWriteCommand(modeCommand + "" + value);
-    }
+        if (prologixChannel == null) {
+            throw new IOException("ERROR: Not Connected");
+        }
 
-    public String getRead() throws IOException, InterruptedException, TimeoutException {
-        prologixWriteCommand(readCommand);
-        prologixClearReadBuffer();
-        return prologixReadLine(ReadlineTerminationMode.LF, 10).toString();
-    }
+        long deadlineNanos = 0;
 
-    // Look into how to do read command
+        while (byteBuffer.hasRemaining()) {
+            if (prologixChannel.write(byteBuffer) > 0) {
+                continue;
+            }
 
-    public void setReadTimeout(int value) throws IOException {
-        prologixWriteCommand(readTmoMsCommand + "" + value);
+            deadlineNanos = prologixAwaitWritable(deadlineNanos);
+        }
     }
 
-    public void sendReset() throws IOException {
-        prologixWriteCommand(resetCommand);
-    }
+    @Override
+    protected void prologixTransmit(ByteBuffer[] byteBuffers, int count) throws IOException {
+        SocketChannel prologixChannel = this.prologixChannel;
 
-    public String getSaveConfig() throws IllegalArgumentException, IOException, InterruptedException, TimeoutException {
-        prologixWriteCommand(saveConfigCommand);
-        prologixClearReadBuffer();
-        return prologixReadLine(ReadlineTerminationMode.LF, 10).toString();
-    }
+        if (prologixChannel == null) {
+            throw new IOException("ERROR: Not Connected");
+        }
 
-    public void setSaveConfig(int value) throws IOException {
-        prologixWriteCommand(saveConfigCommand + "" + value);
-    }
+        long deadlineNanos = 0;
 
-    public String sendSpoll() throws IOException, InterruptedException, TimeoutException {
-        prologixWriteCommand(spollCommand);
-        prologixClearReadBuffer();
-        return prologixReadLine(ReadlineTerminationMode.LF, 10).toString();
-    }
+        for (int i = 0; i < count;) {
+            if (!byteBuffers[i].hasRemaining()) {
+                i++;
 
-    public String sendSpoll(BusAddress busAddress) throws IOException, InterruptedException, TimeoutException {
-        prologixWriteCommand(spollCommand + "" + busAddress);
-        prologixClearReadBuffer();
-        return prologixReadLine(ReadlineTerminationMode.LF, 10).toString();
-    }
+                continue;
+            }
 
-    public String getSRQ() throws IOException, InterruptedException, TimeoutException {
-        prologixWriteCommand(srqCommand);
-        prologixClearReadBuffer();
-        return prologixReadLine(ReadlineTerminationMode.LF, 10).toString();
-    }
+            if (prologixChannel.write(byteBuffers, i, count - i) > 0) {
+                continue;
+            }
 
-    public String getStatus() throws IOException, InterruptedException, TimeoutException {
-        prologixWriteCommand(statusCommand);
-        prologixClearReadBuffer();
-        return prologixReadLine(ReadlineTerminationMode.LF, 10).toString();
+            deadlineNanos = prologixAwaitWritable(deadlineNanos);
+        }
     }
 
-    public void sendStatus(int value) throws IOException {
-        prologixWriteCommand(statusCommand + "" + value);
-    }
+    /**
+     * Waits on the selector for the socket send buffer to drain.
+     * 
+     * @param deadlineNanos zero when this is the first wait of the write
+     * @return deadline of the write
+     * @throws IOException if the write has timed out
+     */
+    private long prologixAwaitWritable(long deadlineNanos) throws IOException {
+        long currentNanos = System.nanoTime();
 
-    // Look into how to do trg command
+        if (deadlineNanos == 0) {
+            deadlineNanos = currentNanos + TimeUnit.MILLISECONDS.toNanos(writeTimeoutMs);
+        } else if (currentNanos - deadlineNanos >= 0) {
+            throw new IOException("ERROR: Write Timed Out");
+        }
 
-    public String getVersion() throws IOException, InterruptedException, TimeoutException {
-        prologixWriteCommand(versionCommand);
-        prologixClearReadBuffer();
-        return prologixReadLine(ReadlineTerminationMode.LF, 10).toString();
-    }
+        writeSelector.selectedKeys().clear();
+        writeSelector.select(Math.max(1, TimeUnit.NANOSECONDS.toMillis(deadlineNanos - currentNanos)));
 
-    public String getHelp() throws IOException, InterruptedException, TimeoutException {
-        prologixWriteCommand(helpCommand);
-        prologixClearReadBuffer();
-        return prologixReadLine(ReadlineTerminationMode.LF, 10).toString();
+        return deadlineNanos;
     }
 }
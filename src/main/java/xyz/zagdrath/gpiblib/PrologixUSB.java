@@ -8,24 +8,28 @@
  * Author: Cody L. Wellman <zecoderex@gmail.com>
  * 
  * Created: July 11, 2022
- * Updated: July 11, 2022
+ * Updated: October 17, 2026
  */
 
 package xyz.zagdrath.gpiblib;
 
-import java.io.BufferedReader;
-import java.io.BufferedWriter;
 import java.io.IOException;
-import java.io.InputStreamReader;
-import java.io.OutputStreamWriter;
+import java.nio.ByteBuffer;
 
 import com.fazecast.jSerialComm.SerialPort;
+import com.fazecast.jSerialComm.SerialPortEvent;
+import com.fazecast.jSerialComm.SerialPortDataListener;
 
-public class PrologixUSB {
+public class PrologixUSB extends PrologixAdapter {
     private SerialPort commPort;
 
-    private BufferedReader inputStream;
-    private BufferedWriter outputStream;
+    private final byte[] readChunk = new byte[readChunkCapacity];
+    private final byte[] writeChunk = new byte[writeChunkCapacity];
+
+    private final static int readChunkCapacity = 4096;
+    private final static int writeChunkCapacity = 4096;
+    private final static int writeTimeoutMs = 1000;
+    private final static long listenerPollMs = 100;
 
     /**
      * Constructs and configures the Prologix USB.
@@ -40,9 +44,11 @@ public class PrologixUSB {
             commPort = SerialPort.getCommPort(serialPort);
         }
 
+        defaultConfig(commPort, 115200, 8, SerialPort.ONE_STOP_BIT, SerialPort.NO_PARITY);
+
         openConnection(commPort);
 
-        defaultConfig(commPort, 115200, 8, SerialPort.ONE_STOP_BIT, SerialPort.NO_PARITY);
+        defaultConfig();
     }
 
     /**
@@ -55,7 +61,8 @@ public class PrologixUSB {
      * @param parity
      */
     private void defaultConfig(SerialPort serialPort, int baudRate, int dataBits, int stopBits, int parity) {
-        serialPort.setComPortTimeouts(SerialPort.TIMEOUT_READ_SEMI_BLOCKING, 0, 0);
+        serialPort.setComPortTimeouts(SerialPort.TIMEOUT_NONBLOCKING | SerialPort.TIMEOUT_WRITE_BLOCKING, 0,
+                writeTimeoutMs);
 
         serialPort.setComPortParameters(baudRate, dataBits, stopBits, parity);
     }
@@ -84,10 +91,15 @@ public class PrologixUSB {
      * @param serialPort
      */
     public void openConnection(SerialPort serialPort) throws IOException {
-        serialPort.openPort();
+        closeConnection();
 
-        inputStream = new BufferedReader(new InputStreamReader(serialPort.getInputStream()));
-        outputStream = new BufferedWriter(new OutputStreamWriter(serialPort.getOutputStream()));
+        if (!serialPort.openPort()) {
+            throw new IOException("ERROR: Could not Open Serial Connection");
+        }
+
+        this.commPort = serialPort;
+
+        startListener(serialPort);
     }
 
     /**
@@ -97,18 +109,150 @@ public class PrologixUSB {
      * @throws IOException
      */
     public void closeConnection(SerialPort serialPort) throws IOException {
-        try {
-            if (inputStream != null) {
-                inputStream.close();
+        stopListener(serialPort);
+
+        invalidateBusAddress();
+
+        if (serialPort != null && serialPort.isOpen() && !serialPort.closePort()) {
+            throw new IOException("ERROR: Could not Close Serial Connection");
+        }
+    }
+
+    @Override
+    public void closeConnection() throws IOException {
+        closeConnection(commPort);
+    }
+
+    // Prologix Listener
+
+    private volatile boolean listening;
+    private volatile boolean disconnected;
+
+    /**
+     * Registers the listener that moves bytes from the serial port into the
+     * read buffer as they arrive. jSerialComm calls it from its single event
+     * thread, so the read buffer keeps exactly one producer.
+     * 
+     * @param serialPort
+     * @throws IOException
+     */
+    private void startListener(SerialPort serialPort) throws IOException {
+        disconnected = false;
+
+        prologixReceiveOpened();
+
+        listening = true;
+
+        if (!serialPort.addDataListener(new PrologixDataListener())) {
+            listening = false;
+
+            throw new IOException("ERROR: Could not Listen to Serial Connection");
+        }
+    }
+
+    /**
+     * Removes the data listener.
+     * 
+     * @param serialPort
+     */
+    private void stopListener(SerialPort serialPort) {
+        boolean listening = this.listening;
+
+        // Let a listener waiting for room in the read buffer return first
+        this.listening = false;
+
+        prologixReceiveWake();
+
+        if (listening && serialPort != null) {
+            serialPort.removeDataListener();
+        }
+    }
+
+    private class PrologixDataListener implements SerialPortDataListener {
+        @Override
+        public int getListeningEvents() {
+            return SerialPort.LISTENING_EVENT_DATA_AVAILABLE
+                    | SerialPort.LISTENING_EVENT_PORT_DISCONNECTED;
+        }
+
+        @Override
+        public void serialEvent(SerialPortEvent serialPortEvent) {
+            if (serialPortEvent.getEventType() == SerialPort.LISTENING_EVENT_PORT_DISCONNECTED) {
+                disconnected = true;
+
+                prologixReceiveFailed(new IOException("ERROR: Serial Port Disconnected"));
+
+                return;
             }
 
-            if (outputStream != null) {
-                outputStream.close();
+            SerialPort commPort = serialPortEvent.getSerialPort();
+
+            try {
+                while (listening && !disconnected) {
+                    int bytesAvailable = commPort.bytesAvailable();
+
+                    if (bytesAvailable <= 0) {
+                        break;
+                    }
+
+                    int receiveSpace = prologixReceiveSpace();
+
+                    if (receiveSpace == 0) {
+                        // Leave the bytes with the port until the read buffer
+                        // has room rather than dropping them
+                        prologixAwaitReceiveSpace(listenerPollMs);
+
+                        continue;
+                    }
+
+                    int bytesRead = commPort.readBytes(readChunk,
+                            Math.min(Math.min(bytesAvailable, readChunk.length), receiveSpace));
+
+                    if (bytesRead <= 0) {
+                        break;
+                    }
+
+                    prologixReceive(readChunk, 0, bytesRead);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
             }
-        } catch (IOException e) {
-            throw new IOException("ERROR: Could not Close Serial Connection");
         }
+    }
+
+    /**
+     * Check's whether received bytes are being delivered to the read buffer.
+     * 
+     * @return true while the listener is registered and the port is connected
+     */
+    public boolean isListening() {
+        return listening && !disconnected;
+    }
+
+    // Prologix Transmit
+
+    @Override
+    protected void prologixTransmit(ByteBuffer byteBuffer) throws IOException {
+        SerialPort commPort = this.commPort;
 
-        serialPort.closePort();
+        if (commPort == null || !commPort.isOpen() || disconnected) {
+            throw new IOException("ERROR: Not Connected");
+        }
+
+        while (byteBuffer.hasRemaining()) {
+            int length = Math.min(byteBuffer.remaining(), writeChunk.length);
+
+            byteBuffer.get(writeChunk, 0, length);
+
+            for (int offset = 0; offset < length;) {
+                int bytesWritten = commPort.writeBytes(writeChunk, length - offset, offset);
+
+                if (bytesWritten <= 0) {
+                    throw new IOException("ERROR: Could not Write Serial Connection");
+                }
+
+                offset += bytesWritten;
+            }
+        }
     }
 }
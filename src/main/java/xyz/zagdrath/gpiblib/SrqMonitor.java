@@ -0,0 +1,312 @@
+/*
+ * @(#)SrqMonitor.java
+ * 
+ * Copyright (c) 2022 Cody L. Wellman. All rights reserved. This work is
+ * licensed under the terms of the MIT license which can be found in the
+ * root directory of this project.
+ * 
+ * Author: Cody L. Wellman <zecoderex@gmail.com>
+ * 
+ * Created: October 17, 2026
+ * Updated: October 17, 2026
+ */
+
+package xyz.zagdrath.gpiblib;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Watches the SRQ line of a transport from a background thread.
+ * 
+ * The Prologix does not report SRQ on its own, so the monitor asks with ++srq
+ * at a fixed interval. Only when SRQ is asserted does it serial poll the
+ * registered instruments, and each instrument whose status byte has the RQS
+ * bit set has its listener called with that status byte. Listeners run on the
+ * monitor thread after the bus has been released, so they may talk to their
+ * instrument straight away, for example to fetch the reading it signalled.
+ * 
+ * The monitor holds the transport's lock while it polls, anything else using
+ * the transport at the same time must synchronize on it as well.
+ */
+public class SrqMonitor {
+    private final GpibTransport gpibTransport;
+    private final CopyOnWriteArrayList<Registration> registrations = new CopyOnWriteArrayList<>();
+
+    private final long pollIntervalNanos;
+
+    private Thread monitorThread;
+    private volatile boolean running;
+
+    private volatile long srqPolls;
+    private volatile long serialPolls;
+    private volatile long serviceRequests;
+    private volatile long errors;
+
+    private final static int rqsBit = 0x40;
+    private final static long defaultPollIntervalMs = 5;
+
+    /**
+     * Listens for service requests from one instrument.
+     */
+    public interface SrqListener {
+        /**
+         * Called on the monitor thread when the instrument requested service.
+         * 
+         * @param busAddress
+         * @param statusByte the serial poll response, RQS bit included
+         */
+        void serviceRequested(BusAddress busAddress, int statusByte);
+    }
+
+    private static class Registration {
+        private final BusAddress busAddress;
+        private final SrqListener srqListener;
+
+        private int statusByte;
+        private long pollRound;
+
+        private Registration(BusAddress busAddress, SrqListener srqListener) {
+            this.busAddress = busAddress;
+            this.srqListener = srqListener;
+        }
+    }
+
+    /**
+     * Constructs a monitor that checks SRQ every 5 ms.
+     * 
+     * @param gpibTransport
+     */
+    public SrqMonitor(GpibTransport gpibTransport) {
+        this(gpibTransport, defaultPollIntervalMs);
+    }
+
+    /**
+     * Constructs a monitor.
+     * 
+     * @param gpibTransport
+     * @param pollIntervalMs time between ++srq queries while SRQ is not asserted
+     * @throws IllegalArgumentException
+     */
+    public SrqMonitor(GpibTransport gpibTransport, long pollIntervalMs) throws IllegalArgumentException {
+        if (gpibTransport == null) {
+            throw new IllegalArgumentException("ERROR: Invalid GPIB Transport");
+        }
+
+        if (pollIntervalMs <= 0) {
+            throw new IllegalArgumentException("ERROR: Invalid Poll Interval");
+        }
+
+        this.gpibTransport = gpibTransport;
+        this.pollIntervalNanos = TimeUnit.MILLISECONDS.toNanos(pollIntervalMs);
+    }
+
+    /**
+     * Registers a listener for an instrument. An instrument may have more than
+     * one listener, each is called with the same status byte.
+     * 
+     * @param busAddress
+     * @param srqListener
+     */
+    public void register(BusAddress busAddress, SrqListener srqListener) {
+        if (busAddress == null) {
+            throw new IllegalArgumentException("ERROR: Invalid Bus Address");
+        }
+
+        if (srqListener == null) {
+            throw new IllegalArgumentException("ERROR: Invalid Listener");
+        }
+
+        registrations.add(new Registration(busAddress, srqListener));
+    }
+
+    /**
+     * Removes a listener.
+     * 
+     * @param srqListener
+     */
+    public void unregister(SrqListener srqListener) {
+        registrations.removeIf(registration -> registration.srqListener == srqListener);
+    }
+
+    /**
+     * Starts the monitor thread.
+     */
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
+
+        running = true;
+
+        monitorThread = new Thread(this::monitorLoop, "SRQ Monitor");
+        monitorThread.setDaemon(true);
+        monitorThread.start();
+    }
+
+    /**
+     * Stops the monitor thread and waits for it to exit.
+     * 
+     * @throws InterruptedException
+     */
+    public synchronized void stop() throws InterruptedException {
+        Thread monitorThread = this.monitorThread;
+
+        running = false;
+
+        if (monitorThread == null) {
+            return;
+        }
+
+        LockSupport.unpark(monitorThread);
+
+        if (monitorThread != Thread.currentThread()) {
+            monitorThread.join();
+        }
+
+        this.monitorThread = null;
+    }
+
+    public boolean isRunning() {
+        return running;
+    }
+
+    private void monitorLoop() {
+        while (running) {
+            boolean serviced = false;
+
+            try {
+                serviced = poll();
+            } catch (InterruptedException e) {
+                break;
+            } catch (IOException | TimeoutException e) {
+                errors++;
+            }
+
+            if (!serviced) {
+                LockSupport.parkNanos(this, pollIntervalNanos);
+            }
+        }
+    }
+
+    /**
+     * Checks SRQ once and serial polls every registered instrument if it is
+     * asserted, then calls the listeners of those requesting service.
+     * 
+     * @return true if a listener was called
+     * @throws IOException
+     * @throws InterruptedException
+     * @throws TimeoutException
+     */
+    private boolean poll() throws IOException, InterruptedException, TimeoutException {
+        int requesting = 0;
+
+        synchronized (gpibTransport) {
+            srqPolls++;
+
+            if (!gpibTransport.isServiceRequested()) {
+                return false;
+            }
+
+            long pollRound = srqPolls;
+
+            for (Registration registration : registrations) {
+                Registration polled = findPolled(registration, pollRound);
+
+                if (polled != null) {
+                    // A serial poll clears RQS, so each address is polled once
+                    registration.statusByte = polled.statusByte;
+                } else {
+                    serialPolls++;
+
+                    registration.statusByte = gpibTransport.serialPoll(registration.busAddress);
+                }
+
+                registration.pollRound = pollRound;
+
+                if ((registration.statusByte & rqsBit) != 0) {
+                    requesting++;
+                }
+            }
+        }
+
+        if (requesting == 0) {
+            return false;
+        }
+
+        for (Registration registration : registrations) {
+            int statusByte = registration.statusByte;
+
+            if ((statusByte & rqsBit) != 0) {
+                registration.statusByte = 0;
+
+                serviceRequests++;
+
+                try {
+                    registration.srqListener.serviceRequested(registration.busAddress, statusByte);
+                } catch (RuntimeException e) {
+                    errors++;
+                }
+            }
+        }
+
+        return true;
+    }
+
+    private Registration findPolled(Registration registration, long pollRound) {
+        BusAddress busAddress = registration.busAddress;
+
+        for (Registration other : registrations) {
+            if (other == registration) {
+                break;
+            }
+
+            if (other.pollRound == pollRound
+                    && other.busAddress.getBusAddressPrimary() == busAddress.getBusAddressPrimary()
+                    && other.busAddress.getBusAddressSecondary() == busAddress.getBusAddressSecondary()) {
+                return other;
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * Get's the number of ++srq queries sent.
+     * 
+     * @return srqPolls
+     */
+    public long getSrqPolls() {
+        return srqPolls;
+    }
+
+    /**
+     * Get's the number of serial polls sent.
+     * 
+     * @return serialPolls
+     */
+    public long getSerialPolls() {
+        return serialPolls;
+    }
+
+    /**
+     * Get's the number of listener calls made.
+     * 
+     * @return serviceRequests
+     */
+    public long getServiceRequests() {
+        return serviceRequests;
+    }
+
+    /**
+     * Get's the number of failed polls and listeners that threw.
+     * 
+     * @return errors
+     */
+    public long getErrors() {
+        return errors;
+    }
+}
@@ -1,23 +1,344 @@
 package xyz.zagdrath.gpiblib;
 
-import java.io.IOException;
 import java.net.URL;
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 import javax.script.ScriptException;
 
-public class SystemBus {
+import xyz.zagdrath.gpiblib.util.EncodedCommand;
+import xyz.zagdrath.gpiblib.util.ReadlineTerminationMode;
+
+/**
+ * The GPIB buses of a rack, one per Prologix controller.
+ * 
+ * Every adapter gets its own TransactionSerializer and so its own I/O thread,
+ * and transactions are routed to the adapter an instrument is attached to.
+ * Adapters share nothing, so transactions on different adapters run fully in
+ * parallel while those on one adapter are serialized.
+ * 
+ * A transaction that expects a reply has its instrument command followed by
+ * ++read eoi, so a query is a single submit and its future completes with the
+ * instrument's answer.
+ */
+public class SystemBus implements Closeable {
     private String systemBusType;
 
-    private PrologixEthernet prologixEthernet;
-    private PrologixUSB prologixUSB;
+    private final CopyOnWriteArrayList<GpibTransport> gpibTransports = new CopyOnWriteArrayList<>();
+    private final CopyOnWriteArrayList<TransactionSerializer> transactionSerializers =
+            new CopyOnWriteArrayList<>();
+    private final ConcurrentHashMap<String, Instrument> instruments = new ConcurrentHashMap<>();
 
     public SystemBus(String systemBusType, URL prologixURL, String serialPort)
             throws IllegalArgumentException, IOException, ScriptException {
         this.systemBusType = systemBusType;
 
-        if (systemBusType == "Ethernet") {
-            prologixEthernet = new PrologixEthernet(prologixURL);
-        } else if (systemBusType == "USB") {
-            prologixUSB = new PrologixUSB(serialPort);
+        GpibTransport gpibTransport;
+
+        if ("Ethernet".equals(systemBusType)) {
+            gpibTransport = new PrologixEthernet(prologixURL);
+        } else if ("USB".equals(systemBusType)) {
+            gpibTransport = new PrologixUSB(serialPort);
+        } else if ("Loopback".equals(systemBusType)) {
+            gpibTransport = new LoopbackTransport();
+        } else {
+            throw new IllegalArgumentException("ERROR: Invalid System Bus Type");
+        }
+
+        addGpibTransport(gpibTransport);
+    }
+
+    public SystemBus(GpibTransport gpibTransport) throws IllegalArgumentException {
+        if (gpibTransport == null) {
+            throw new IllegalArgumentException("ERROR: Invalid GPIB Transport");
+        }
+
+        this.systemBusType = gpibTransport.getClass().getSimpleName();
+
+        addGpibTransport(gpibTransport);
+    }
+
+    /**
+     * Constructs a system bus without adapters, they are added with
+     * addGpibTransport().
+     */
+    public SystemBus() {
+        this.systemBusType = "Multiple";
+    }
+
+    /**
+     * Get's the system bus type.
+     * 
+     * @return systemBusType
+     */
+    public String getSystemBusType() {
+        return systemBusType;
+    }
+
+    /**
+     * Get's the transport of the first adapter.
+     * 
+     * @return gpibTransport, null without adapters
+     */
+    public GpibTransport getGpibTransport() {
+        return gpibTransports.isEmpty() ? null : gpibTransports.get(0);
+    }
+
+    // Adapters
+
+    /**
+     * Adds an adapter and starts its I/O thread.
+     * 
+     * @param gpibTransport
+     * @return index of the adapter
+     * @throws IllegalArgumentException
+     */
+    public synchronized int addGpibTransport(GpibTransport gpibTransport)
+            throws IllegalArgumentException {
+        if (gpibTransport == null || gpibTransports.contains(gpibTransport)) {
+            throw new IllegalArgumentException("ERROR: Invalid GPIB Transport");
+        }
+
+        transactionSerializers.add(new TransactionSerializer(gpibTransport));
+        gpibTransports.add(gpibTransport);
+
+        return gpibTransports.size() - 1;
+    }
+
+    /**
+     * Get's the number of adapters.
+     * 
+     * @return adapterCount
+     */
+    public int getAdapterCount() {
+        return gpibTransports.size();
+    }
+
+    /**
+     * Get's the transport of an adapter, which instruments on it are
+     * constructed with.
+     * 
+     * @param adapter
+     * @return gpibTransport
+     */
+    public GpibTransport getGpibTransport(int adapter) {
+        return gpibTransports.get(adapter);
+    }
+
+    /**
+     * Get's the serializer owning an adapter's I/O thread.
+     * 
+     * @param adapter
+     * @return transactionSerializer
+     */
+    public TransactionSerializer getTransactionSerializer(int adapter) {
+        return transactionSerializers.get(adapter);
+    }
+
+    // Instruments
+
+    /**
+     * Adds an instrument, which must have been constructed with the transport
+     * of one of the adapters.
+     * 
+     * @param instrument
+     * @throws IllegalArgumentException
+     */
+    public void addInstrument(Instrument instrument) throws IllegalArgumentException {
+        if (instrument == null || instrument.getInstrumentName() == null) {
+            throw new IllegalArgumentException("ERROR: Invalid Instrument");
+        }
+
+        getAdapter(instrument);
+
+        instruments.put(instrument.getInstrumentName(), instrument);
+    }
+
+    /**
+     * Get's an instrument by name.
+     * 
+     * @param instrumentName
+     * @return instrument, null if there is none by that name
+     */
+    public Instrument getInstrument(String instrumentName) {
+        return instruments.get(instrumentName);
+    }
+
+    /**
+     * Get's the index of the adapter an instrument is attached to.
+     * 
+     * @param instrument
+     * @return adapter
+     * @throws IllegalArgumentException if the instrument is on none of them
+     */
+    public int getAdapter(Instrument instrument) throws IllegalArgumentException {
+        int adapter = gpibTransports.indexOf(instrument.getGpibTransport());
+
+        if (adapter < 0) {
+            throw new IllegalArgumentException("ERROR: Instrument Not On System Bus");
+        }
+
+        return adapter;
+    }
+
+    // Transactions
+
+    /**
+     * Queues a transaction on the adapter the instrument is attached to.
+     * 
+     * @param instrument
+     * @param command instrument command, cooked on the way out
+     * @param readlineTerminationMode termination of the reply, null for none
+     * @param timeoutMs for the reply
+     * @return future completed with the reply, or null when none is expected
+     * @throws IllegalArgumentException
+     */
+    public CompletableFuture<byte[]> submit(Instrument instrument, String command,
+            ReadlineTerminationMode readlineTerminationMode, long timeoutMs)
+            throws IllegalArgumentException {
+        return transactionSerializers.get(getAdapter(instrument))
+                .submit(instrument.getBusAddress(), command, readlineTerminationMode, timeoutMs);
+    }
+
+    /**
+     * Queues a transaction at a priority on the adapter the instrument is
+     * attached to.
+     * 
+     * @param instrument
+     * @param priority
+     * @param command instrument command, cooked on the way out
+     * @param readlineTerminationMode termination of the reply, null for none
+     * @param timeoutMs for the reply
+     * @return future completed with the reply, or null when none is expected
+     * @throws IllegalArgumentException
+     */
+    public CompletableFuture<byte[]> submit(Instrument instrument, TransactionSerializer.Priority priority,
+            String command, ReadlineTerminationMode readlineTerminationMode, long timeoutMs)
+            throws IllegalArgumentException {
+        return transactionSerializers.get(getAdapter(instrument))
+                .submit(instrument.getBusAddress(), priority, command, readlineTerminationMode, timeoutMs);
+    }
+
+    /**
+     * Queues a transaction writing a pre-encoded command on the adapter the
+     * instrument is attached to.
+     * 
+     * @param instrument
+     * @param encodedCommand
+     * @param readlineTerminationMode termination of the reply, null for none
+     * @param timeoutMs for the reply
+     * @return future completed with the reply, or null when none is expected
+     * @throws IllegalArgumentException
+     */
+    public CompletableFuture<byte[]> submit(Instrument instrument, EncodedCommand encodedCommand,
+            ReadlineTerminationMode readlineTerminationMode, long timeoutMs)
+            throws IllegalArgumentException {
+        return transactionSerializers.get(getAdapter(instrument))
+                .submit(instrument.getBusAddress(), encodedCommand, readlineTerminationMode, timeoutMs);
+    }
+
+    /**
+     * Executes a transaction on the adapter the instrument is attached to and
+     * waits for it.
+     * 
+     * @param instrument
+     * @param command instrument command, cooked on the way out
+     * @param readlineTerminationMode termination of the reply, null for none
+     * @param timeoutMs for the reply
+     * @return the reply, or null when none is expected
+     * @throws IOException
+     * @throws InterruptedException
+     * @throws TimeoutException
+     */
+    public byte[] transact(Instrument instrument, String command,
+            ReadlineTerminationMode readlineTerminationMode, long timeoutMs)
+            throws IOException, InterruptedException, TimeoutException {
+        return transactionSerializers.get(getAdapter(instrument))
+                .transact(instrument.getBusAddress(), command, readlineTerminationMode, timeoutMs);
+    }
+
+    // Statistics
+
+    /**
+     * Get's the number of transactions waiting for an adapter.
+     * 
+     * @param adapter
+     * @return queueDepth
+     */
+    public long getQueueDepth(int adapter) {
+        return transactionSerializers.get(adapter).getQueueDepth();
+    }
+
+    /**
+     * Get's the largest number of transactions that have waited for an
+     * adapter at once.
+     * 
+     * @param adapter
+     * @return queueHighWater
+     */
+    public long getQueueHighWater(int adapter) {
+        return transactionSerializers.get(adapter).getQueueHighWater();
+    }
+
+    /**
+     * Get's one line per adapter with its queue depth, high water mark,
+     * transaction counts and scheduling counts.
+     * 
+     * @return metrics
+     */
+    public String getAdapterMetrics() {
+        StringBuilder stringBuilder = new StringBuilder();
+
+        for (int i = 0; i < transactionSerializers.size(); i++) {
+            TransactionSerializer transactionSerializer = transactionSerializers.get(i);
+
+            stringBuilder.append("adapter ").append(i)
+                    .append(" transport=").append(gpibTransports.get(i).getClass().getSimpleName())
+                    .append(" queue_depth=").append(transactionSerializer.getQueueDepth())
+                    .append(" queue_high_water=").append(transactionSerializer.getQueueHighWater())
+                    .append(" transactions=").append(transactionSerializer.getTransactions())
+                    .append(" runs=").append(transactionSerializer.getRuns())
+                    .append(" coalesced=").append(transactionSerializer.getCoalesced())
+                    .append(" failures=").append(transactionSerializer.getFailures())
+                    .append(" address_switches=").append(transactionSerializer.getAddressSwitches())
+                    .append(" affinity_runs=").append(transactionSerializer.getAffinityRuns())
+                    .append(" starvation_runs=").append(transactionSerializer.getStarvationRuns())
+                    .append('\n');
+        }
+
+        return stringBuilder.toString();
+    }
+
+    // Lifecycle
+
+    /**
+     * Stops every adapter's I/O thread and closes its connection.
+     * 
+     * @throws IOException
+     */
+    @Override
+    public void close() throws IOException {
+        IOException closeException = null;
+
+        for (int i = 0; i < gpibTransports.size(); i++) {
+            transactionSerializers.get(i).close();
+
+            try {
+                gpibTransports.get(i).closeConnection();
+            } catch (IOException e) {
+                if (closeException == null) {
+                    closeException = e;
+                } else {
+                    closeException.addSuppressed(e);
+                }
+            }
+        }
+
+        if (closeException != null) {
+            throw closeException;
         }
     }
 }
@@ -0,0 +1,861 @@
+/*
+ * @(#)TransactionSerializer.java
+ * 
+ * Copyright (c) 2022 Cody L. Wellman. All rights reserved. This work is
+ * licensed under the terms of the MIT license which can be found in the
+ * root directory of this project.
+ * 
+ * Author: Cody L. Wellman <zecoderex@gmail.com>
+ * 
+ * Created: October 17, 2026
+ * Updated: October 17, 2026
+ */
+
+package xyz.zagdrath.gpiblib;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.ArrayDeque;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import xyz.zagdrath.gpiblib.util.EncodedCommand;
+import xyz.zagdrath.gpiblib.util.LatencyHistogram;
+import xyz.zagdrath.gpiblib.util.ReadlineTerminationMode;
+
+/**
+ * Lets any number of threads share one transport.
+ * 
+ * A transaction addresses an instrument, writes one command and optionally
+ * reads one line in reply, and is never interleaved with another. When a
+ * reply is expected, an instrument command is followed by ++read eoi to
+ * fetch it; a Prologix command such as ++spoll is answered by the controller
+ * itself, so it is written alone. Threads
+ * submit transactions to a lock-free queue and a single bus owner thread
+ * executes them. Transactions for the same instrument are coalesced into a
+ * run: the run's commands go out in one batched write behind at most one
+ * ++addr, and the replies are then framed in order, so a burst of queries to
+ * one instrument costs one round trip instead of one per query.
+ * 
+ * The bus owner schedules runs rather than taking them strictly in submission
+ * order. Transactions for one instrument always execute in the order they
+ * were submitted, but those for different instruments may be reordered:
+ * 
+ * - An instrument takes the priority of its most urgent waiting transaction,
+ *   and the most urgent instrument goes next.
+ * - Among instruments of equal priority the bus stays on the instrument it is
+ *   already addressing, saving the ++addr switch, for as long as the oldest
+ *   transaction of another of them has waited less than the grouping window.
+ *   Past that the instrument with the oldest transaction goes next.
+ * - A transaction that has waited longer than the starvation cap goes next
+ *   whatever its priority, so a slow meter sharing the bus with fast counters
+ *   is delayed by at most the cap plus one run.
+ * 
+ * A thread that needs transactions for two instruments executed in a
+ * particular order must wait on the first before submitting the second.
+ * 
+ * The bus owner holds the transport's lock for each run, so it can be mixed
+ * with code that synchronizes on the transport directly.
+ */
+public class TransactionSerializer implements Closeable {
+    private final GpibTransport gpibTransport;
+    private final ConcurrentLinkedQueue<Transaction> queue = new ConcurrentLinkedQueue<>();
+    private final ArrayList<InstrumentQueue> instrumentQueues = new ArrayList<>();
+    private final Transaction[] run = new Transaction[maxRunLength];
+    private final byte[][] replies = new byte[maxRunLength][];
+
+    private final AtomicLong queueDepth = new AtomicLong();
+    private final AtomicLong queueHighWater = new AtomicLong();
+
+    private final Thread ownerThread;
+
+    private final LatencyHistogram[] waitHistograms = new LatencyHistogram[Priority.values().length];
+
+    private volatile boolean running = true;
+    private volatile boolean waiting;
+
+    private volatile long groupingWindowNanos = TimeUnit.MILLISECONDS.toNanos(defaultGroupingWindowMs);
+    private volatile long starvationCapNanos = TimeUnit.MILLISECONDS.toNanos(defaultStarvationCapMs);
+
+    private InstrumentQueue addressedQueue;
+
+    private volatile long transactions;
+    private volatile long runs;
+    private volatile long coalesced;
+    private volatile long failures;
+    private volatile long addressSwitches;
+    private volatile long affinityRuns;
+    private volatile long starvationRuns;
+
+    private final static int maxRunLength = 16;
+    private final static long defaultGroupingWindowMs = 2;
+    private final static long defaultStarvationCapMs = 50;
+    private final static long lateReplyTimeoutMs = 1000;
+
+    /**
+     * Urgency of a transaction.
+     */
+    public enum Priority {
+        LOW, NORMAL, HIGH
+    }
+
+    /**
+     * One queued transaction.
+     */
+    private static class Transaction {
+        private final BusAddress busAddress;
+        private final Priority priority;
+        private final EncodedCommand encodedCommand;
+        private final int value;
+        private final boolean hasValue;
+        private final String command;
+        private final ReadlineTerminationMode readlineTerminationMode;
+        private final long timeoutMs;
+        private final long submitNanos = System.nanoTime();
+        private final CompletableFuture<byte[]> future = new CompletableFuture<>();
+
+        private Transaction(BusAddress busAddress, Priority priority, EncodedCommand encodedCommand,
+                int value, boolean hasValue, String command,
+                ReadlineTerminationMode readlineTerminationMode, long timeoutMs) {
+            this.busAddress = busAddress;
+            this.priority = priority;
+            this.encodedCommand = encodedCommand;
+            this.value = value;
+            this.hasValue = hasValue;
+            this.command = command;
+            this.readlineTerminationMode = readlineTerminationMode;
+            this.timeoutMs = timeoutMs;
+        }
+
+    }
+
+    /**
+     * The waiting transactions of one instrument, only touched by the bus
+     * owner thread.
+     */
+    private static class InstrumentQueue {
+        private final byte busAddressPrimary;
+        private final byte busAddressSecondary;
+        private final ArrayDeque<Transaction> transactions = new ArrayDeque<>();
+        private final int[] priorityCounts = new int[Priority.values().length];
+
+        private InstrumentQueue(BusAddress busAddress) {
+            this.busAddressPrimary = busAddress.getBusAddressPrimary();
+            this.busAddressSecondary = busAddress.getBusAddressSecondary();
+        }
+
+        private boolean isInstrument(BusAddress busAddress) {
+            return busAddressPrimary == busAddress.getBusAddressPrimary()
+                    && busAddressSecondary == busAddress.getBusAddressSecondary();
+        }
+
+        private void add(Transaction transaction) {
+            transactions.addLast(transaction);
+            priorityCounts[transaction.priority.ordinal()]++;
+        }
+
+        private Transaction poll() {
+            Transaction transaction = transactions.pollFirst();
+
+            priorityCounts[transaction.priority.ordinal()]--;
+
+            return transaction;
+        }
+
+        private boolean isEmpty() {
+            return transactions.isEmpty();
+        }
+
+        /**
+         * Get's the ordinal of the most urgent waiting transaction.
+         * 
+         * @return priority, -1 when empty
+         */
+        private int getPriority() {
+            for (int i = priorityCounts.length - 1; i >= 0; i--) {
+                if (priorityCounts[i] > 0) {
+                    return i;
+                }
+            }
+
+            return -1;
+        }
+
+        private long getOldestNanos() {
+            return transactions.peekFirst().submitNanos;
+        }
+    }
+
+    /**
+     * Constructs a serializer and starts its bus owner thread.
+     * 
+     * @param gpibTransport
+     * @throws IllegalArgumentException
+     */
+    public TransactionSerializer(GpibTransport gpibTransport) throws IllegalArgumentException {
+        if (gpibTransport == null) {
+            throw new IllegalArgumentException("ERROR: Invalid GPIB Transport");
+        }
+
+        this.gpibTransport = gpibTransport;
+
+        for (int i = 0; i < waitHistograms.length; i++) {
+            waitHistograms[i] = new LatencyHistogram();
+        }
+
+        ownerThread = new Thread(this::ownerLoop, "GPIB Bus Owner");
+        ownerThread.setDaemon(true);
+        ownerThread.start();
+    }
+
+    // Scheduling
+
+    /**
+     * Set's how long the bus may stay on the instrument it is addressing
+     * while an instrument of equal priority waits. Zero serves instruments
+     * of equal priority strictly oldest first.
+     * 
+     * @param groupingWindowMs
+     */
+    public void setGroupingWindowMs(long groupingWindowMs) {
+        if (groupingWindowMs < 0) {
+            throw new IllegalArgumentException("ERROR: Invalid Grouping Window");
+        }
+
+        this.groupingWindowNanos = TimeUnit.MILLISECONDS.toNanos(groupingWindowMs);
+    }
+
+    /**
+     * Get's the grouping window.
+     * 
+     * @return groupingWindowMs
+     */
+    public long getGroupingWindowMs() {
+        return TimeUnit.NANOSECONDS.toMillis(groupingWindowNanos);
+    }
+
+    /**
+     * Set's how long a transaction may wait before it goes next whatever its
+     * priority.
+     * 
+     * @param starvationCapMs
+     */
+    public void setStarvationCapMs(long starvationCapMs) {
+        if (starvationCapMs <= 0) {
+            throw new IllegalArgumentException("ERROR: Invalid Starvation Cap");
+        }
+
+        this.starvationCapNanos = TimeUnit.MILLISECONDS.toNanos(starvationCapMs);
+    }
+
+    /**
+     * Get's the starvation cap.
+     * 
+     * @return starvationCapMs
+     */
+    public long getStarvationCapMs() {
+        return TimeUnit.NANOSECONDS.toMillis(starvationCapNanos);
+    }
+
+    // Submitting
+
+    /**
+     * Queues a transaction writing a pre-encoded command.
+     * 
+     * @param busAddress
+     * @param encodedCommand
+     * @param readlineTerminationMode termination of the reply, null for none
+     * @param timeoutMs for the reply
+     * @return future completed with the reply without its terminator, or null
+     *         when no reply is expected
+     */
+    public CompletableFuture<byte[]> submit(BusAddress busAddress, EncodedCommand encodedCommand,
+            ReadlineTerminationMode readlineTerminationMode, long timeoutMs) {
+        return submit(busAddress, Priority.NORMAL, encodedCommand, readlineTerminationMode, timeoutMs);
+    }
+
+    /**
+     * Queues a transaction writing a pre-encoded command at a priority.
+     * 
+     * @param busAddress
+     * @param priority
+     * @param encodedCommand
+     * @param readlineTerminationMode termination of the reply, null for none
+     * @param timeoutMs for the reply
+     * @return future completed with the reply without its terminator, or null
+     *         when no reply is expected
+     */
+    public CompletableFuture<byte[]> submit(BusAddress busAddress, Priority priority,
+            EncodedCommand encodedCommand, ReadlineTerminationMode readlineTerminationMode,
+            long timeoutMs) {
+        if (encodedCommand == null) {
+            throw new IllegalArgumentException("ERROR: Invalid Command");
+        }
+
+        return submit(new Transaction(busAddress, priority, encodedCommand, 0, false, null,
+                readlineTerminationMode, timeoutMs));
+    }
+
+    /**
+     * Queues a transaction writing a pre-encoded command with an integer
+     * argument.
+     * 
+     * @param busAddress
+     * @param encodedCommand
+     * @param value
+     * @param readlineTerminationMode termination of the reply, null for none
+     * @param timeoutMs for the reply
+     * @return future completed with the reply without its terminator, or null
+     *         when no reply is expected
+     */
+    public CompletableFuture<byte[]> submit(BusAddress busAddress, EncodedCommand encodedCommand,
+            int value, ReadlineTerminationMode readlineTerminationMode, long timeoutMs) {
+        return submit(busAddress, Priority.NORMAL, encodedCommand, value, readlineTerminationMode,
+                timeoutMs);
+    }
+
+    /**
+     * Queues a transaction writing a pre-encoded command with an integer
+     * argument at a priority.
+     * 
+     * @param busAddress
+     * @param priority
+     * @param encodedCommand
+     * @param value
+     * @param readlineTerminationMode termination of the reply, null for none
+     * @param timeoutMs for the reply
+     * @return future completed with the reply without its terminator, or null
+     *         when no reply is expected
+     */
+    public CompletableFuture<byte[]> submit(BusAddress busAddress, Priority priority,
+            EncodedCommand encodedCommand, int value, ReadlineTerminationMode readlineTerminationMode,
+            long timeoutMs) {
+        if (encodedCommand == null) {
+            throw new IllegalArgumentException("ERROR: Invalid Command");
+        }
+
+        return submit(new Transaction(busAddress, priority, encodedCommand, value, true, null,
+                readlineTerminationMode, timeoutMs));
+    }
+
+    /**
+     * Queues a transaction writing an instrument command, which is cooked on
+     * the way out.
+     * 
+     * @param busAddress
+     * @param command
+     * @param readlineTerminationMode termination of the reply, null for none
+     * @param timeoutMs for the reply
+     * @return future completed with the reply without its terminator, or null
+     *         when no reply is expected
+     */
+    public CompletableFuture<byte[]> submit(BusAddress busAddress, String command,
+            ReadlineTerminationMode readlineTerminationMode, long timeoutMs) {
+        return submit(busAddress, Priority.NORMAL, command, readlineTerminationMode, timeoutMs);
+    }
+
+    /**
+     * Queues a transaction writing an instrument command at a priority.
+     * 
+     * @param busAddress
+     * @param priority
+     * @param command
+     * @param readlineTerminationMode termination of the reply, null for none
+     * @param timeoutMs for the reply
+     * @return future completed with the reply without its terminator, or null
+     *         when no reply is expected
+     */
+    public CompletableFuture<byte[]> submit(BusAddress busAddress, Priority priority, String command,
+            ReadlineTerminationMode readlineTerminationMode, long timeoutMs) {
+        if (command == null) {
+            throw new IllegalArgumentException("ERROR: Invalid Command");
+        }
+
+        return submit(new Transaction(busAddress, priority, null, 0, false, command,
+                readlineTerminationMode, timeoutMs));
+    }
+
+    /**
+     * Executes a transaction writing an instrument command and waits for it.
+     * 
+     * @param busAddress
+     * @param command
+     * @param readlineTerminationMode termination of the reply, null for none
+     * @param timeoutMs for the reply
+     * @return the reply without its terminator, or null when no reply is
+     *         expected
+     * @throws IOException
+     * @throws InterruptedException
+     * @throws TimeoutException
+     */
+    public byte[] transact(BusAddress busAddress, String command,
+            ReadlineTerminationMode readlineTerminationMode, long timeoutMs)
+            throws IOException, InterruptedException, TimeoutException {
+        try {
+            return submit(busAddress, command, readlineTerminationMode, timeoutMs).get();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+
+            if (cause instanceof TimeoutException) {
+                throw (TimeoutException) cause;
+            }
+
+            if (cause instanceof InterruptedException) {
+                throw (InterruptedException) cause;
+            }
+
+            throw new IOException("ERROR: Transaction Failed", cause);
+        }
+    }
+
+    private CompletableFuture<byte[]> submit(Transaction transaction) {
+        if (transaction.busAddress == null) {
+            throw new IllegalArgumentException("ERROR: Invalid Bus Address");
+        }
+
+        if (transaction.priority == null) {
+            throw new IllegalArgumentException("ERROR: Invalid Priority");
+        }
+
+        if (transaction.readlineTerminationMode != null && transaction.timeoutMs <= 0) {
+            throw new IllegalArgumentException("ERROR: Invalid Timeout");
+        }
+
+        if (!running) {
+            transaction.future.completeExceptionally(new IOException("ERROR: Serializer Closed"));
+
+            return transaction.future;
+        }
+
+        long depth = queueDepth.incrementAndGet();
+        long highWater = queueHighWater.get();
+
+        while (depth > highWater && !queueHighWater.compareAndSet(highWater, depth)) {
+            highWater = queueHighWater.get();
+        }
+
+        queue.offer(transaction);
+
+        // The bus owner may have drained the queue for the last time between
+        // the check above and the offer, whichever removes it completes it
+        if (!running && queue.remove(transaction)) {
+            queueDepth.decrementAndGet();
+
+            transaction.future.completeExceptionally(new IOException("ERROR: Serializer Closed"));
+
+            return transaction.future;
+        }
+
+        if (waiting) {
+            LockSupport.unpark(ownerThread);
+        }
+
+        return transaction.future;
+    }
+
+    // Bus Owner
+
+    private void ownerLoop() {
+        while (running) {
+            int runLength = takeRun();
+
+            if (runLength == 0) {
+                waiting = true;
+
+                // Check again after announcing the wait so no wake up is lost
+                if (queue.isEmpty() && running) {
+                    LockSupport.park(this);
+                }
+
+                waiting = false;
+
+                continue;
+            }
+
+            executeRun(runLength);
+        }
+
+        IOException closed = new IOException("ERROR: Serializer Closed");
+        Transaction transaction;
+
+        while ((transaction = queue.poll()) != null) {
+            queueDepth.decrementAndGet();
+
+            transaction.future.completeExceptionally(closed);
+        }
+
+        for (InstrumentQueue instrumentQueue : instrumentQueues) {
+            while (!instrumentQueue.isEmpty()) {
+                queueDepth.decrementAndGet();
+
+                instrumentQueue.poll().future.completeExceptionally(closed);
+            }
+        }
+    }
+
+    /**
+     * Moves every submitted transaction onto the queue of its instrument.
+     */
+    private void drainQueue() {
+        Transaction transaction;
+
+        while ((transaction = queue.poll()) != null) {
+            findInstrumentQueue(transaction.busAddress).add(transaction);
+        }
+    }
+
+    private InstrumentQueue findInstrumentQueue(BusAddress busAddress) {
+        for (InstrumentQueue instrumentQueue : instrumentQueues) {
+            if (instrumentQueue.isInstrument(busAddress)) {
+                return instrumentQueue;
+            }
+        }
+
+        InstrumentQueue instrumentQueue = new InstrumentQueue(busAddress);
+
+        instrumentQueues.add(instrumentQueue);
+
+        return instrumentQueue;
+    }
+
+    /**
+     * Picks the instrument to go next and takes its oldest transactions, up
+     * to the run limit.
+     * 
+     * @return number of transactions in the run
+     */
+    private int takeRun() {
+        drainQueue();
+
+        long nowNanos = System.nanoTime();
+
+        InstrumentQueue oldestQueue = null;
+        InstrumentQueue urgentQueue = null;
+        int urgentPriority = -1;
+
+        for (InstrumentQueue instrumentQueue : instrumentQueues) {
+            if (instrumentQueue.isEmpty()) {
+                continue;
+            }
+
+            long oldestNanos = instrumentQueue.getOldestNanos();
+            int priority = instrumentQueue.getPriority();
+
+            if (oldestQueue == null || oldestNanos - oldestQueue.getOldestNanos() < 0) {
+                oldestQueue = instrumentQueue;
+            }
+
+            if (priority > urgentPriority
+                    || (priority == urgentPriority && oldestNanos - urgentQueue.getOldestNanos() < 0)) {
+                urgentQueue = instrumentQueue;
+                urgentPriority = priority;
+            }
+        }
+
+        if (oldestQueue == null) {
+            return 0;
+        }
+
+        InstrumentQueue nextQueue;
+
+        if (nowNanos - oldestQueue.getOldestNanos() >= starvationCapNanos) {
+            nextQueue = oldestQueue;
+
+            starvationRuns++;
+        } else if (addressedQueue != null && addressedQueue != urgentQueue
+                && !addressedQueue.isEmpty() && addressedQueue.getPriority() == urgentPriority
+                && nowNanos - urgentQueue.getOldestNanos() < groupingWindowNanos) {
+            nextQueue = addressedQueue;
+
+            affinityRuns++;
+        } else {
+            nextQueue = urgentQueue;
+        }
+
+        if (nextQueue != addressedQueue) {
+            addressedQueue = nextQueue;
+
+            addressSwitches++;
+        }
+
+        int runLength = 0;
+
+        while (runLength < maxRunLength && !nextQueue.isEmpty()) {
+            Transaction transaction = nextQueue.poll();
+
+            waitHistograms[transaction.priority.ordinal()].record(nowNanos - transaction.submitNanos);
+
+            run[runLength++] = transaction;
+        }
+
+        queueDepth.addAndGet(-runLength);
+
+        return runLength;
+    }
+
+    /**
+     * Executes a run under the transport's lock. The futures are completed
+     * once the lock has been released, so stages depending on them never run
+     * while holding the bus.
+     * 
+     * When a reply fails, the reads still queued on the adapter are waited out
+     * before the lock is released, so a late reply is not framed by the next
+     * run.
+     * 
+     * @param runLength
+     */
+    private void executeRun(int runLength) {
+        int index = 0;
+        boolean flushed = false;
+        Throwable failure = null;
+
+        try {
+            synchronized (gpibTransport) {
+                gpibTransport.prologixClearReadBuffer();
+                gpibTransport.beginBatch();
+
+                try {
+                    gpibTransport.setBusAddress(run[0].busAddress);
+
+                    for (int i = 0; i < runLength; i++) {
+                        write(run[i]);
+
+                        if (run[i].readlineTerminationMode != null
+                                && !(run[i].encodedCommand instanceof PrologixCommand)) {
+                            gpibTransport.prologixWriteCommand(PrologixCommand.READ_EOI);
+                        }
+                    }
+                } catch (IOException | RuntimeException e) {
+                    gpibTransport.abandonBatch();
+
+                    throw e;
+                }
+
+                gpibTransport.flush(1);
+
+                flushed = true;
+
+                for (; index < runLength; index++) {
+                    Transaction transaction = run[index];
+
+                    if (transaction.readlineTerminationMode != null) {
+                        replies[index] = gpibTransport.prologixReadLine(
+                                transaction.readlineTerminationMode, transaction.timeoutMs);
+                    }
+                }
+            }
+        } catch (IOException | TimeoutException | RuntimeException e) {
+            failure = e;
+        } catch (InterruptedException e) {
+            failure = e;
+
+            running = false;
+        }
+
+        if (failure != null) {
+            // Replies behind a failed one can no longer be told apart
+            synchronized (gpibTransport) {
+                if (flushed && !(failure instanceof InterruptedException)) {
+                    waitOutReplies(index, runLength);
+                }
+
+                gpibTransport.prologixClearReadBuffer();
+                gpibTransport.invalidateBusAddress();
+            }
+
+            addressedQueue = null;
+        }
+
+        for (int i = 0; i < runLength; i++) {
+            if (i < index) {
+                run[i].future.complete(replies[i]);
+            } else {
+                run[i].future.completeExceptionally(failure);
+
+                failures++;
+            }
+
+            run[i] = null;
+            replies[i] = null;
+        }
+
+        transactions += runLength;
+        runs++;
+        coalesced += runLength - 1;
+    }
+
+    /**
+     * Consumes the replies still expected from a run, late or not. The failed
+     * one is included, a reply that timed out may yet arrive. Each is given at
+     * least a second, however short the timeout it was submitted with.
+     * 
+     * @param index of the transaction that failed
+     * @param runLength
+     */
+    private void waitOutReplies(int index, int runLength) {
+        for (int i = index; i < runLength; i++) {
+            Transaction transaction = run[i];
+
+            if (transaction.readlineTerminationMode == null) {
+                continue;
+            }
+
+            try {
+                gpibTransport.prologixReadLine(transaction.readlineTerminationMode,
+                        Math.max(transaction.timeoutMs, lateReplyTimeoutMs));
+            } catch (IOException | TimeoutException e) {
+                // Answered or given up on, either way no longer outstanding
+            } catch (InterruptedException e) {
+                running = false;
+
+                Thread.currentThread().interrupt();
+
+                return;
+            }
+        }
+    }
+
+    private void write(Transaction transaction) throws IOException {
+        if (transaction.command != null) {
+            gpibTransport.prologixWriteCooked(transaction.command);
+        } else if (transaction.hasValue) {
+            gpibTransport.prologixWriteEncoded(transaction.encodedCommand, transaction.value);
+        } else {
+            gpibTransport.prologixWriteEncoded(transaction.encodedCommand);
+        }
+    }
+
+    // Lifecycle
+
+    /**
+     * Stops the bus owner thread once the run in progress completes. Queued
+     * transactions fail with an IOException.
+     */
+    @Override
+    public void close() {
+        running = false;
+
+        LockSupport.unpark(ownerThread);
+
+        if (ownerThread != Thread.currentThread()) {
+            try {
+                ownerThread.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    public boolean isRunning() {
+        return running;
+    }
+
+    // Statistics
+
+    /**
+     * Get's the number of transactions waiting for the bus.
+     * 
+     * @return queueDepth
+     */
+    public long getQueueDepth() {
+        return queueDepth.get();
+    }
+
+    /**
+     * Get's the largest number of transactions that have waited for the bus
+     * at once.
+     * 
+     * @return queueHighWater
+     */
+    public long getQueueHighWater() {
+        return queueHighWater.get();
+    }
+
+    /**
+     * Get's the number of transactions executed, including failed ones.
+     * 
+     * @return transactions
+     */
+    public long getTransactions() {
+        return transactions;
+    }
+
+    /**
+     * Get's the number of runs executed, each a single batched write.
+     * 
+     * @return runs
+     */
+    public long getRuns() {
+        return runs;
+    }
+
+    /**
+     * Get's the number of transactions that joined the run of the transaction
+     * ahead of them.
+     * 
+     * @return coalesced
+     */
+    public long getCoalesced() {
+        return coalesced;
+    }
+
+    /**
+     * Get's the number of transactions that failed.
+     * 
+     * @return failures
+     */
+    public long getFailures() {
+        return failures;
+    }
+
+    /**
+     * Get's the number of runs for a different instrument than the run
+     * before, each costing an ++addr.
+     * 
+     * @return addressSwitches
+     */
+    public long getAddressSwitches() {
+        return addressSwitches;
+    }
+
+    /**
+     * Get's the number of runs that stayed on the addressed instrument ahead
+     * of an older transaction of equal priority.
+     * 
+     * @return affinityRuns
+     */
+    public long getAffinityRuns() {
+        return affinityRuns;
+    }
+
+    /**
+     * Get's the number of runs started because a transaction reached the
+     * starvation cap.
+     * 
+     * @return starvationRuns
+     */
+    public long getStarvationRuns() {
+        return starvationRuns;
+    }
+
+    /**
+     * Get's how long transactions of a priority waited between being
+     * submitted and being taken into a run.
+     * 
+     * @param priority
+     * @return snapshot
+     */
+    public LatencyHistogram.Snapshot getWaitSnapshot(Priority priority) {
+        return waitHistograms[priority.ordinal()].snapshot();
+    }
+}
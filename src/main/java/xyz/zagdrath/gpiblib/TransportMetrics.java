@@ -0,0 +1,322 @@
+/*
+ * @(#)TransportMetrics.java
+ * 
+ * Copyright (c) 2022 Cody L. Wellman. All rights reserved. This work is
+ * licensed under the terms of the MIT license which can be found in the
+ * root directory of this project.
+ * 
+ * Author: Cody L. Wellman <zecoderex@gmail.com>
+ * 
+ * Created: October 17, 2026
+ * Updated: October 17, 2026
+ */
+
+package xyz.zagdrath.gpiblib;
+
+import java.util.Map;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.ConcurrentHashMap;
+
+import xyz.zagdrath.gpiblib.util.EncodedCommand;
+import xyz.zagdrath.gpiblib.util.LatencyHistogram;
+
+/**
+ * Counters and latency histograms of a transport.
+ * 
+ * Writes are timed per command class, ++ controller commands and instrument
+ * commands, and per encoded command. Transactions, a command and its reply,
+ * are timed per instrument function. Every record method is lock-free and,
+ * once a command has been seen for the first time, allocation-free.
+ */
+public class TransportMetrics {
+    private final LatencyHistogram controllerCommands = new LatencyHistogram();
+    private final LatencyHistogram instrumentCommands = new LatencyHistogram();
+    private final LatencyHistogram readLines = new LatencyHistogram();
+    private final LatencyHistogram batches = new LatencyHistogram();
+    private final LatencyHistogram bulkReads = new LatencyHistogram();
+
+    private final ConcurrentHashMap<EncodedCommand, LatencyHistogram> commandWrites =
+            new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<EncodedCommand, LatencyHistogram> transactions =
+            new ConcurrentHashMap<>();
+
+    private final AtomicLong bytesOut = new AtomicLong();
+    private final AtomicLong bytesIn = new AtomicLong();
+    private final AtomicLong chunksIn = new AtomicLong();
+    private final AtomicLong bytesOverrun = new AtomicLong();
+    private final AtomicLong timeouts = new AtomicLong();
+    private final AtomicLong addressSwitches = new AtomicLong();
+    private final AtomicLong addressSwitchesAvoided = new AtomicLong();
+    private final AtomicLong readBufferHighWater = new AtomicLong();
+    private final AtomicLong batchHighWater = new AtomicLong();
+    private final AtomicLong bulkReadHighWater = new AtomicLong();
+
+    private volatile long lastReceiveNanos;
+
+    // Latency
+
+    /**
+     * Records the time taken to write a command.
+     * 
+     * @param encodedCommand the command, or null for one written as a String
+     * @param controllerCommand true for a ++ command
+     * @param nanos
+     */
+    public void recordWrite(EncodedCommand encodedCommand, boolean controllerCommand, long nanos) {
+        (controllerCommand ? controllerCommands : instrumentCommands).record(nanos);
+
+        if (encodedCommand != null) {
+            histogram(commandWrites, encodedCommand).record(nanos);
+        }
+    }
+
+    /**
+     * Records the time from writing an instrument command to having its reply.
+     * 
+     * @param encodedCommand
+     * @param nanos
+     */
+    public void recordTransaction(EncodedCommand encodedCommand, long nanos) {
+        histogram(transactions, encodedCommand).record(nanos);
+    }
+
+    /**
+     * Records the time spent waiting for and framing a line.
+     * 
+     * @param nanos
+     */
+    public void recordReadLine(long nanos) {
+        readLines.record(nanos);
+    }
+
+    /**
+     * Records the time taken to flush a batch, including its replies.
+     * 
+     * @param nanos
+     * @param commands
+     */
+    public void recordBatch(long nanos, int commands) {
+        batches.record(nanos);
+
+        highWater(batchHighWater, commands);
+    }
+
+    /**
+     * Records the time taken to read a whole response in bulk.
+     * 
+     * @param nanos
+     * @param bytes
+     */
+    public void recordBulkRead(long nanos, int bytes) {
+        bulkReads.record(nanos);
+
+        highWater(bulkReadHighWater, bytes);
+    }
+
+    private static LatencyHistogram histogram(
+            ConcurrentHashMap<EncodedCommand, LatencyHistogram> histograms,
+            EncodedCommand encodedCommand) {
+        LatencyHistogram latencyHistogram = histograms.get(encodedCommand);
+
+        if (latencyHistogram == null) {
+            latencyHistogram = histograms.computeIfAbsent(encodedCommand, k -> new LatencyHistogram());
+        }
+
+        return latencyHistogram;
+    }
+
+    // Counters
+
+    public void recordBytesOut(long bytes) {
+        bytesOut.addAndGet(bytes);
+    }
+
+    /**
+     * Records a chunk handed to the read buffer.
+     * 
+     * @param bytesRead bytes received
+     * @param bytesWritten bytes that fit in the read buffer
+     * @param bytesBuffered bytes in the read buffer afterwards
+     */
+    public void recordReceive(int bytesRead, int bytesWritten, int bytesBuffered) {
+        lastReceiveNanos = System.nanoTime();
+
+        chunksIn.incrementAndGet();
+        bytesIn.addAndGet(bytesRead);
+
+        if (bytesWritten < bytesRead) {
+            bytesOverrun.addAndGet(bytesRead - bytesWritten);
+        }
+
+        highWater(readBufferHighWater, bytesBuffered);
+    }
+
+    public void recordTimeout() {
+        timeouts.incrementAndGet();
+    }
+
+    public void recordAddressSwitch() {
+        addressSwitches.incrementAndGet();
+    }
+
+    public void recordAddressSwitchAvoided() {
+        addressSwitchesAvoided.incrementAndGet();
+    }
+
+    private static void highWater(AtomicLong highWater, long value) {
+        long current = highWater.get();
+
+        while (value > current && !highWater.compareAndSet(current, value)) {
+            current = highWater.get();
+        }
+    }
+
+    public long getBytesOut() {
+        return bytesOut.get();
+    }
+
+    public long getBytesIn() {
+        return bytesIn.get();
+    }
+
+    public long getChunksIn() {
+        return chunksIn.get();
+    }
+
+    public long getBytesOverrun() {
+        return bytesOverrun.get();
+    }
+
+    public long getTimeouts() {
+        return timeouts.get();
+    }
+
+    public long getAddressSwitches() {
+        return addressSwitches.get();
+    }
+
+    public long getAddressSwitchesAvoided() {
+        return addressSwitchesAvoided.get();
+    }
+
+    public long getReadBufferHighWater() {
+        return readBufferHighWater.get();
+    }
+
+    public long getBatchHighWater() {
+        return batchHighWater.get();
+    }
+
+    public long getBulkReadHighWater() {
+        return bulkReadHighWater.get();
+    }
+
+    public long getLastReceiveNanos() {
+        return lastReceiveNanos;
+    }
+
+    /**
+     * Zeroes every counter and histogram.
+     */
+    public void reset() {
+        controllerCommands.reset();
+        instrumentCommands.reset();
+        readLines.reset();
+        batches.reset();
+        bulkReads.reset();
+
+        commandWrites.values().forEach(LatencyHistogram::reset);
+        transactions.values().forEach(LatencyHistogram::reset);
+
+        bytesOut.set(0);
+        bytesIn.set(0);
+        chunksIn.set(0);
+        bytesOverrun.set(0);
+        timeouts.set(0);
+        addressSwitches.set(0);
+        addressSwitchesAvoided.set(0);
+        readBufferHighWater.set(0);
+        batchHighWater.set(0);
+        bulkReadHighWater.set(0);
+    }
+
+    // Snapshot
+
+    /**
+     * Copies every counter and histogram.
+     * 
+     * @return snapshot
+     */
+    public Snapshot snapshot() {
+        Map<String, LatencyHistogram.Snapshot> histograms = new LinkedHashMap<>();
+
+        histograms.put("controller", controllerCommands.snapshot());
+        histograms.put("instrument", instrumentCommands.snapshot());
+        histograms.put("readline", readLines.snapshot());
+        histograms.put("batch", batches.snapshot());
+        histograms.put("bulkread", bulkReads.snapshot());
+
+        commandWrites.forEach((encodedCommand, latencyHistogram) -> histograms
+                .put("write " + encodedCommand.getCommand(), latencyHistogram.snapshot()));
+        transactions.forEach((encodedCommand, latencyHistogram) -> histograms
+                .put("transaction " + encodedCommand.getCommand(), latencyHistogram.snapshot()));
+
+        Map<String, Long> counters = new LinkedHashMap<>();
+
+        counters.put("bytes_out", bytesOut.get());
+        counters.put("bytes_in", bytesIn.get());
+        counters.put("chunks_in", chunksIn.get());
+        counters.put("bytes_overrun", bytesOverrun.get());
+        counters.put("timeouts", timeouts.get());
+        counters.put("address_switches", addressSwitches.get());
+        counters.put("address_switches_avoided", addressSwitchesAvoided.get());
+        counters.put("read_buffer_high_water", readBufferHighWater.get());
+        counters.put("batch_high_water", batchHighWater.get());
+        counters.put("bulk_read_high_water", bulkReadHighWater.get());
+
+        return new Snapshot(System.nanoTime(), counters, histograms);
+    }
+
+    /**
+     * Immutable copy of the metrics, exported by toString() as one line per
+     * counter and histogram.
+     */
+    public static class Snapshot {
+        private final long snapshotNanos;
+        private final Map<String, Long> counters;
+        private final Map<String, LatencyHistogram.Snapshot> histograms;
+
+        private Snapshot(long snapshotNanos, Map<String, Long> counters,
+                Map<String, LatencyHistogram.Snapshot> histograms) {
+            this.snapshotNanos = snapshotNanos;
+            this.counters = Collections.unmodifiableMap(counters);
+            this.histograms = Collections.unmodifiableMap(histograms);
+        }
+
+        public long getSnapshotNanos() {
+            return snapshotNanos;
+        }
+
+        public Map<String, Long> getCounters() {
+            return counters;
+        }
+
+        public Map<String, LatencyHistogram.Snapshot> getHistograms() {
+            return histograms;
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder stringBuilder = new StringBuilder();
+
+            counters.forEach((name, value) -> stringBuilder.append(name).append(' ').append(value)
+                    .append('\n'));
+            histograms.forEach((name, histogram) -> stringBuilder.append(name).append(' ')
+                    .append(histogram).append('\n'));
+
+            return stringBuilder.toString();
+        }
+    }
+}
@@ -0,0 +1,46 @@
+/*
+ * @(#)GpibConnectEvent.java
+ * 
+ * Copyright (c) 2022 Cody L. Wellman. All rights reserved. This work is
+ * licensed under the terms of the MIT license which can be found in the
+ * root directory of this project.
+ * 
+ * Author: Cody L. Wellman <zecoderex@gmail.com>
+ * 
+ * Created: October 17, 2026
+ * Updated: October 17, 2026
+ */
+
+package xyz.zagdrath.gpiblib.event;
+
+import jdk.jfr.Name;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Category;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Description;
+
+/**
+ * Flight Recorder event for opening a connection to a GPIB controller.
+ */
+@Name("xyz.zagdrath.gpiblib.Connect")
+@Label("GPIB Connect")
+@Category({ "GPIB" })
+@Description("Connection to a GPIB controller")
+@StackTrace(false)
+public class GpibConnectEvent extends Event {
+    @Label("Transport")
+    public String transport;
+
+    @Label("Host")
+    public String host;
+
+    @Label("Port")
+    public int port;
+
+    @Label("Connected")
+    public boolean connected;
+
+    @Label("Error")
+    public String error;
+}
@@ -0,0 +1,49 @@
+/*
+ * @(#)GpibReadEvent.java
+ * 
+ * Copyright (c) 2022 Cody L. Wellman. All rights reserved. This work is
+ * licensed under the terms of the MIT license which can be found in the
+ * root directory of this project.
+ * 
+ * Author: Cody L. Wellman <zecoderex@gmail.com>
+ * 
+ * Created: October 17, 2026
+ * Updated: October 17, 2026
+ */
+
+package xyz.zagdrath.gpiblib.event;
+
+import jdk.jfr.Name;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Description;
+
+/**
+ * Flight Recorder event for a line or bulk response read from a GPIB
+ * controller's replies. The event's duration is the time spent waiting for it.
+ */
+@Name("xyz.zagdrath.gpiblib.Read")
+@Label("GPIB Read")
+@Category({ "GPIB" })
+@Description("Line or response read from a GPIB controller")
+@StackTrace(false)
+public class GpibReadEvent extends Event {
+    @Label("Transport")
+    public String transport;
+
+    @Label("Bus Address")
+    public String busAddress;
+
+    @Label("Termination Mode")
+    public String terminationMode;
+
+    @Label("Size")
+    @DataAmount
+    public int size;
+
+    @Label("Timed Out")
+    public boolean timedOut;
+}
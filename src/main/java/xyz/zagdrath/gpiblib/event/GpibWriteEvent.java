@@ -0,0 +1,53 @@
+/*
+ * @(#)GpibWriteEvent.java
+ * 
+ * Copyright (c) 2022 Cody L. Wellman. All rights reserved. This work is
+ * licensed under the terms of the MIT license which can be found in the
+ * root directory of this project.
+ * 
+ * Author: Cody L. Wellman <zecoderex@gmail.com>
+ * 
+ * Created: October 17, 2026
+ * Updated: October 17, 2026
+ */
+
+package xyz.zagdrath.gpiblib.event;
+
+import jdk.jfr.Name;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Description;
+
+/**
+ * Flight Recorder event for a command written to a GPIB controller.
+ */
+@Name("xyz.zagdrath.gpiblib.Write")
+@Label("GPIB Write")
+@Category({ "GPIB" })
+@Description("Command written to a GPIB controller")
+@StackTrace(false)
+public class GpibWriteEvent extends Event {
+    @Label("Transport")
+    public String transport;
+
+    @Label("Bus Address")
+    public String busAddress;
+
+    @Label("Command")
+    public String command;
+
+    @Label("Controller Command")
+    @Description("True for a ++ command, false for an instrument command")
+    public boolean controllerCommand;
+
+    @Label("Size")
+    @DataAmount
+    public int size;
+
+    @Label("Batched")
+    @Description("Queued in a batch rather than sent")
+    public boolean batched;
+}
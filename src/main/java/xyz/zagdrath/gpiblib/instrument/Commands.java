@@ -8,11 +8,16 @@
  * Author: Cody L. Wellman <zecoderex@gmail.com>
  * 
  * Created: July 07, 2022
- * Updated: July 07, 2022
+ * Updated: October 17, 2026
  */
 
 package xyz.zagdrath.gpiblib.instrument;
 
+import java.nio.ByteBuffer;
+
+import xyz.zagdrath.gpiblib.util.CommandBytes;
+import xyz.zagdrath.gpiblib.util.EncodedCommand;
+
 public class Commands {
     public class HP5334Commands {
         public final static String inputACouplingDC = "AA0";
@@ -81,4 +86,107 @@ public class Commands {
         public final static String waitAddressedOff = "WA0";
         public final static String waitAddressedOn = "WA1";
     }
+
+    /**
+     * The HP 5334 commands, cooked and terminated once so that writing one is
+     * a bulk copy into the outgoing buffer.
+     */
+    public enum HP5334Command implements EncodedCommand {
+        INPUT_A_COUPLING_DC(HP5334Commands.inputACouplingDC),
+        INPUT_A_COUPLING_AC(HP5334Commands.inputACouplingAC),
+        INPUT_A_SLOPE_POS(HP5334Commands.inputASlopePos),
+        INPUT_A_SLOPE_NEG(HP5334Commands.inputASlopeNeg),
+        CHANNEL_A_TRIG_LEVEL(HP5334Commands.channelATrigLevel),
+        AUTO_TRIG_OFF(HP5334Commands.autoTrigOff),
+        AUTO_TRIG_ON(HP5334Commands.autoTrigOn),
+        INPUT_A_ATTN_X1(HP5334Commands.inputAAttnX1),
+        INPUT_A_ATTN_X10(HP5334Commands.inputAAttnX10),
+        INPUT_A_IMPEDANCE_1M(HP5334Commands.inputAImpedance1M),
+        INPUT_A_IMPEDENCE_50(HP5334Commands.inputAImpedence50),
+        INPUT_B_COUPLING_DC(HP5334Commands.inputBCouplingDC),
+        INPUT_B_COUPLING_AC(HP5334Commands.inputBCouplingAC),
+        INPUT_B_SLOPE_POS(HP5334Commands.inputBSlopePos),
+        INPUT_B_SLOPE_NEG(HP5334Commands.inputBSlopeNeg),
+        CHANNEL_B_TRIG_LEVEL(HP5334Commands.channelBTrigLevel),
+        INPUT_B_ATTN_X1(HP5334Commands.inputBAttnX1),
+        INPUT_B_ATTN_X10(HP5334Commands.inputBAttnX10),
+        INPUT_B_IMPEDANCE_1M(HP5334Commands.inputBImpedance1M),
+        INPUT_B_IMPEDENCE_50(HP5334Commands.inputBImpedence50),
+        COM_INPUTS_OFF(HP5334Commands.comInputsOff),
+        COM_INPUTS_ON(HP5334Commands.comInputsOn),
+        INPUT_FILTER_OFF(HP5334Commands.inputFilterOff),
+        INPUT_FILTER_ON(HP5334Commands.inputFilterOn),
+        SENS_MODE_OFF(HP5334Commands.sensModeOff),
+        SENS_MODE_ON(HP5334Commands.sensModeOn),
+        REMOTE_TRIG_LEVELS_OFF(HP5334Commands.remoteTrigLevelsOff),
+        REMOTE_TRIG_LEVELS_ON(HP5334Commands.remoteTrigLevelsOn),
+        EXT_START_ARM_SLOPE_POS(HP5334Commands.extStartArmSlopePos),
+        EXT_START_ARM_OFF(HP5334Commands.extStartArmOff),
+        EXT_START_ARM_SLOPE_NEG(HP5334Commands.extStartArmSlopeNeg),
+        EXT_STOP_ARM_SLOPE_POS(HP5334Commands.extStopArmSlopePos),
+        EXT_STOP_ARM_OFF(HP5334Commands.extStopArmOff),
+        EXT_STOP_ARM_SLOPE_NEG(HP5334Commands.extStopArmSlopeNeg),
+        FREQ_A(HP5334Commands.freqA),
+        FREQ_B(HP5334Commands.freqB),
+        FREQ_C(HP5334Commands.freqC),
+        PERIOD_A(HP5334Commands.periodA),
+        TIME_INTERVAL_A_TO_B(HP5334Commands.timeIntervalAToB),
+        TIME_INTERVAL_A_TO_B_DELAY(HP5334Commands.timeIntervalAToBDelay),
+        RATIO_AB(HP5334Commands.ratioAB),
+        TOT_STOP_A(HP5334Commands.totStopA),
+        TOT_START_A(HP5334Commands.totStartA),
+        PULSE_WIDTH_A(HP5334Commands.pulseWidthA),
+        RISE_FALL_TIME_A(HP5334Commands.riseFallTimeA),
+        VOLT_MODE(HP5334Commands.voltMode),
+        READ_TRIG_LEVELS(HP5334Commands.readTrigLevels),
+        READ_PEAKS_A(HP5334Commands.readPeaksA),
+        READ_PEAKS_B(HP5334Commands.readPeaksB),
+        MATH_DISABLE_OFF(HP5334Commands.mathDisableOff),
+        MATH_DISABLE_ON(HP5334Commands.mathDisableOn),
+        NORM(HP5334Commands.norm),
+        OFFSET(HP5334Commands.offset),
+        RECALL_SETUP(HP5334Commands.recallSetup),
+        STORE_SETUP(HP5334Commands.storeSetup),
+        HIGH_SPEED_OFF(HP5334Commands.highSpeedOff),
+        HIGH_SPEED_ON(HP5334Commands.highSpeedOn),
+        INSTRUMENT_ID(HP5334Commands.instrumentID),
+        POWER_ON(HP5334Commands.powerOn),
+        RESET(HP5334Commands.reset),
+        SRQ_MASK(HP5334Commands.srqMask),
+        TRANSMIT_CAL_DATA(HP5334Commands.transmitCalData),
+        TRANSMIT_ERROR(HP5334Commands.transmitError),
+        WAIT_ADDRESSED_OFF(HP5334Commands.waitAddressedOff),
+        WAIT_ADDRESSED_ON(HP5334Commands.waitAddressedOn);
+
+        private final CommandBytes commandBytes;
+
+        private HP5334Command(String command) {
+            this.commandBytes = new CommandBytes(command, "", true);
+        }
+
+        @Override
+        public String getCommand() {
+            return commandBytes.getCommand();
+        }
+
+        @Override
+        public void writeTo(ByteBuffer byteBuffer) {
+            commandBytes.writeTo(byteBuffer);
+        }
+
+        @Override
+        public void writeTo(ByteBuffer byteBuffer, int value) {
+            commandBytes.writeTo(byteBuffer, value);
+        }
+
+        @Override
+        public void writeTo(ByteBuffer byteBuffer, int value, int secondValue) {
+            commandBytes.writeTo(byteBuffer, value, secondValue);
+        }
+
+        @Override
+        public void writeTo(ByteBuffer byteBuffer, double value, int fractionDigits) {
+            commandBytes.writeTo(byteBuffer, value, fractionDigits);
+        }
+    }
 }
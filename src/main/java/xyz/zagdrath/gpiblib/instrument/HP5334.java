@@ -8,38 +8,62 @@
  * Author: Cody L. Wellman <zecoderex@gmail.com>
  * 
  * Created: July 07, 2022
- * Updated: July 10, 2022
+ * Updated: October 17, 2026
  */
 
 package xyz.zagdrath.gpiblib.instrument;
 
 import java.io.IOException;
-import javax.script.ScriptException;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
+import java.util.concurrent.Flow;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.RejectedExecutionException;
 
 import xyz.zagdrath.gpiblib.BusAddress;
 import xyz.zagdrath.gpiblib.Instrument;
-import xyz.zagdrath.gpiblib.PrologixEthernet;
+import xyz.zagdrath.gpiblib.PrologixCommand;
+import xyz.zagdrath.gpiblib.SrqMonitor;
+import xyz.zagdrath.gpiblib.GpibTransport;
+import xyz.zagdrath.gpiblib.util.AsciiNumberParser;
+import xyz.zagdrath.gpiblib.util.SampleRingBuffer;
 import xyz.zagdrath.gpiblib.util.ReadlineTerminationMode;
-import xyz.zagdrath.gpiblib.instrument.Commands.HP5334Commands;
+import xyz.zagdrath.gpiblib.instrument.Commands.HP5334Command;
 
 public class HP5334 extends Instrument {
-    private PrologixEthernet prologixEthernet;
+    private final ByteBuffer responseBuffer = ByteBuffer.allocate(responseBufferCapacity);
+
+    private final static int responseBufferCapacity = 64;
+    private final static long measurementTimeoutMs = 1000;
+
+    /**
+     * Input channels of the HP 5334.
+     */
+    public enum Channel {
+        A,
+        B,
+        C;
+    }
 
     /**
      * Factory constructor to create new instances of a HP 5334.
      * 
      * @param instrumentName
      * @param busAddress
+     * @param gpibTransport
      * @throws IllegalArgumentException
-     * @throws IOException
-     * @throws ScriptException
      */
-    public HP5334(String instrumentName, BusAddress busAddress)
-            throws IllegalArgumentException, IOException, ScriptException {
-        super(instrumentName, busAddress);
+    public HP5334(String instrumentName, BusAddress busAddress, GpibTransport gpibTransport)
+            throws IllegalArgumentException {
+        super(instrumentName, busAddress, gpibTransport);
 
-        prologixEthernet = new PrologixEthernet();
+        if (gpibTransport == null) {
+            throw new IllegalArgumentException("ERROR: Invalid GPIB Transport");
+        }
     }
 
     /**
@@ -53,25 +77,25 @@ public class HP5334 extends Instrument {
     public void setCoupling(String input, String type)
             throws IllegalArgumentException, IOException {
         if (input == "a" || type == "AC") {
-            prologixEthernet.prologixWriteCommand(HP5334Commands.inputACouplingAC);
+            gpibTransport.prologixWriteEncoded(HP5334Command.INPUT_A_COUPLING_AC);
         } else {
             throw new IOException("ERROR: Invalid Configuration");
         }
 
         if (input == "a" || type == "DC") {
-            prologixEthernet.prologixWriteCommand(HP5334Commands.inputACouplingDC);
+            gpibTransport.prologixWriteEncoded(HP5334Command.INPUT_A_COUPLING_DC);
         } else {
             throw new IOException("ERROR: Invalid Configuration");
         }
 
         if (input == "b" || type == "AC") {
-            prologixEthernet.prologixWriteCommand(HP5334Commands.inputBCouplingAC);
+            gpibTransport.prologixWriteEncoded(HP5334Command.INPUT_B_COUPLING_AC);
         } else {
             throw new IOException("ERROR: Invalid Configuration");
         }
 
         if (input == "b" || type == "DC") {
-            prologixEthernet.prologixWriteCommand(HP5334Commands.inputBCouplingDC);
+            gpibTransport.prologixWriteEncoded(HP5334Command.INPUT_B_COUPLING_DC);
         } else {
             throw new IOException("ERROR: Invalid Configuration");
         }
@@ -88,25 +112,25 @@ public class HP5334 extends Instrument {
     public void setSlope(String input, String polarity)
             throws IllegalArgumentException, IOException {
         if (input == "a" || polarity == "positive") {
-            prologixEthernet.prologixWriteCommand(HP5334Commands.inputASlopePos);
+            gpibTransport.prologixWriteEncoded(HP5334Command.INPUT_A_SLOPE_POS);
         } else {
             throw new IOException("ERROR: Invalid Configuration");
         }
 
         if (input == "a" || polarity == "negative") {
-            prologixEthernet.prologixWriteCommand(HP5334Commands.inputASlopeNeg);
+            gpibTransport.prologixWriteEncoded(HP5334Command.INPUT_A_SLOPE_NEG);
         } else {
             throw new IOException("ERROR: Invalid Configuration");
         }
 
         if (input == "b" || polarity == "positive") {
-            prologixEthernet.prologixWriteCommand(HP5334Commands.inputBSlopePos);
+            gpibTransport.prologixWriteEncoded(HP5334Command.INPUT_B_SLOPE_POS);
         } else {
             throw new IOException("ERROR: Invalid Configuration");
         }
 
         if (input == "b" || polarity == "positive") {
-            prologixEthernet.prologixWriteCommand(HP5334Commands.inputBSlopeNeg);
+            gpibTransport.prologixWriteEncoded(HP5334Command.INPUT_B_SLOPE_NEG);
         } else {
             throw new IOException("ERROR: Invalid Configuration");
         }
@@ -123,13 +147,13 @@ public class HP5334 extends Instrument {
     public void setTriggerLevel(String input, double value)
             throws IllegalArgumentException, IOException {
         if (input == "a") { // TODO: Trigger level limiting +-5.1
-            prologixEthernet.prologixWriteCommand(HP5334Commands.channelATrigLevel + value);
+            gpibTransport.prologixWriteEncoded(HP5334Command.CHANNEL_A_TRIG_LEVEL, value, 3);
         } else {
             throw new IOException("ERROR: Invalid Configuration");
         }
 
         if (input == "b") { // TODO: Trigger level limiting +-5.1
-            prologixEthernet.prologixWriteCommand(HP5334Commands.channelBTrigLevel + value);
+            gpibTransport.prologixWriteEncoded(HP5334Command.CHANNEL_B_TRIG_LEVEL, value, 3);
         } else {
             throw new IOException("ERROR: Invalid Configuration");
         }
@@ -144,13 +168,13 @@ public class HP5334 extends Instrument {
      */
     public void setAutoTrigger(boolean value) throws IllegalArgumentException, IOException {
         if (value == false) {
-            prologixEthernet.prologixWriteCommand(HP5334Commands.autoTrigOff);
+            gpibTransport.prologixWriteEncoded(HP5334Command.AUTO_TRIG_OFF);
         } else {
             throw new IOException("ERROR: Value Must be True or False");
         }
 
         if (value == true) {
-            prologixEthernet.prologixWriteCommand(HP5334Commands.autoTrigOn);
+            gpibTransport.prologixWriteEncoded(HP5334Command.AUTO_TRIG_ON);
         } else {
             throw new IOException("ERROR: Value Must be True or False");
         }
@@ -167,25 +191,25 @@ public class HP5334 extends Instrument {
     public void setAttenuation(String input, int value)
             throws IllegalArgumentException, IOException {
         if (input == "a" || value == 1) {
-            prologixEthernet.prologixWriteCommand(HP5334Commands.inputAAttnX1);
+            gpibTransport.prologixWriteEncoded(HP5334Command.INPUT_A_ATTN_X1);
         } else {
             throw new IOException("ERROR: Value Must be 1 or 10");
         }
 
         if (input == "a" || value == 10) {
-            prologixEthernet.prologixWriteCommand(HP5334Commands.inputAAttnX10);
+            gpibTransport.prologixWriteEncoded(HP5334Command.INPUT_A_ATTN_X10);
         } else {
             throw new IOException("ERROR: Value Must be 1 or 10");
         }
 
         if (input == "b" || value == 1) {
-            prologixEthernet.prologixWriteCommand(HP5334Commands.inputBAttnX1);
+            gpibTransport.prologixWriteEncoded(HP5334Command.INPUT_B_ATTN_X1);
         } else {
             throw new IOException("ERROR: Value Must be 1 or 10");
         }
 
         if (input == "b" || value == 10) {
-            prologixEthernet.prologixWriteCommand(HP5334Commands.inputBAttnX10);
+            gpibTransport.prologixWriteEncoded(HP5334Command.INPUT_B_ATTN_X10);
         } else {
             throw new IOException("ERROR: Value Must be 1 or 10");
         }
@@ -201,25 +225,25 @@ public class HP5334 extends Instrument {
      */
     public void setImpedance(String input, int value) throws IllegalArgumentException, IOException {
         if (input == "a" || value == 1) {
-            prologixEthernet.prologixWriteCommand(HP5334Commands.inputAImpedance1M);
+            gpibTransport.prologixWriteEncoded(HP5334Command.INPUT_A_IMPEDANCE_1M);
         } else {
             throw new IOException("ERROR: Value Must be 1M Ohm or 50 Ohm");
         }
 
         if (input == "a" || value == 50) {
-            prologixEthernet.prologixWriteCommand(HP5334Commands.inputAImpedence50);
+            gpibTransport.prologixWriteEncoded(HP5334Command.INPUT_A_IMPEDENCE_50);
         } else {
             throw new IOException("ERROR: Value Must be 1M Ohm or 50 Ohm");
         }
 
         if (input == "b" || value == 1) {
-            prologixEthernet.prologixWriteCommand(HP5334Commands.inputBImpedance1M);
+            gpibTransport.prologixWriteEncoded(HP5334Command.INPUT_B_IMPEDANCE_1M);
         } else {
             throw new IOException("ERROR: Value Must be 1M Ohm or 50 Ohm");
         }
 
         if (input == "b" || value == 50) {
-            prologixEthernet.prologixWriteCommand(HP5334Commands.inputBImpedence50);
+            gpibTransport.prologixWriteEncoded(HP5334Command.INPUT_B_IMPEDENCE_50);
         } else {
             throw new IOException("ERROR: Value Must be 1M Ohm or 50 Ohm");
         }
@@ -234,13 +258,13 @@ public class HP5334 extends Instrument {
      */
     public void setCommonInputs(boolean value) throws IllegalArgumentException, IOException {
         if (value == false) {
-            prologixEthernet.prologixWriteCommand(HP5334Commands.comInputsOff);
+            gpibTransport.prologixWriteEncoded(HP5334Command.COM_INPUTS_OFF);
         } else {
             throw new IOException("ERROR: Value Must be True or False");
         }
 
         if (value == true) {
-            prologixEthernet.prologixWriteCommand(HP5334Commands.comInputsOn);
+            gpibTransport.prologixWriteEncoded(HP5334Command.COM_INPUTS_ON);
         } else {
             throw new IOException("ERROR: Value Must be True or False");
         }
@@ -255,13 +279,13 @@ public class HP5334 extends Instrument {
      */
     public void setInputFilter(boolean value) throws IllegalArgumentException, IOException {
         if (value == false) {
-            prologixEthernet.prologixWriteCommand(HP5334Commands.inputFilterOff);
+            gpibTransport.prologixWriteEncoded(HP5334Command.INPUT_FILTER_OFF);
         } else {
             throw new IOException("ERROR: Value Must be True or False");
         }
 
         if (value == true) {
-            prologixEthernet.prologixWriteCommand(HP5334Commands.inputFilterOn);
+            gpibTransport.prologixWriteEncoded(HP5334Command.INPUT_FILTER_ON);
         } else {
             throw new IOException("ERROR: Value Must be True or False");
         }
@@ -276,13 +300,13 @@ public class HP5334 extends Instrument {
      */
     public void setSensitivityMode(boolean value) throws IllegalArgumentException, IOException {
         if (value == false) {
-            prologixEthernet.prologixWriteCommand(HP5334Commands.sensModeOff);
+            gpibTransport.prologixWriteEncoded(HP5334Command.SENS_MODE_OFF);
         } else {
             throw new IOException("ERROR: Value Must be True or False");
         }
 
         if (value == true) {
-            prologixEthernet.prologixWriteCommand(HP5334Commands.sensModeOn);
+            gpibTransport.prologixWriteEncoded(HP5334Command.SENS_MODE_ON);
         } else {
             throw new IOException("ERROR: Value Must be True or False");
         }
@@ -297,13 +321,13 @@ public class HP5334 extends Instrument {
      */
     public void setSensitivityLevels(boolean value) throws IllegalArgumentException, IOException {
         if (value == false) {
-            prologixEthernet.prologixWriteCommand(HP5334Commands.remoteTrigLevelsOff);
+            gpibTransport.prologixWriteEncoded(HP5334Command.REMOTE_TRIG_LEVELS_OFF);
         } else {
             throw new IOException("ERROR: Value Must be True or False");
         }
 
         if (value == true) {
-            prologixEthernet.prologixWriteCommand(HP5334Commands.remoteTrigLevelsOn);
+            gpibTransport.prologixWriteEncoded(HP5334Command.REMOTE_TRIG_LEVELS_ON);
         } else {
             throw new IOException("ERROR: Value Must be True or False");
         }
@@ -320,20 +344,20 @@ public class HP5334 extends Instrument {
     public void setArmStart(boolean value, String polarity)
             throws IllegalArgumentException, IOException {
         if (value == false) {
-            prologixEthernet.prologixWriteCommand(HP5334Commands.extStartArmOff);
+            gpibTransport.prologixWriteEncoded(HP5334Command.EXT_START_ARM_OFF);
         } else {
             throw new IOException("ERROR: Value Must be True or False");
         }
 
         if (value == true && polarity == "positive") {
-            prologixEthernet.prologixWriteCommand(HP5334Commands.extStartArmSlopePos);
+            gpibTransport.prologixWriteEncoded(HP5334Command.EXT_START_ARM_SLOPE_POS);
         } else {
             throw new IOException(
                     "ERROR: Value Must be True or False & Polarity Must be Positive or Negative");
         }
 
         if (value == true && polarity == "negative") {
-            prologixEthernet.prologixWriteCommand(HP5334Commands.extStartArmSlopeNeg);
+            gpibTransport.prologixWriteEncoded(HP5334Command.EXT_START_ARM_SLOPE_NEG);
         } else {
             throw new IOException(
                     "ERROR: Value Must be True or False & Polarity Must be Positive or Negative");
@@ -351,33 +375,31 @@ public class HP5334 extends Instrument {
     public void setArmStop(boolean value, String polarity)
             throws IllegalArgumentException, IOException {
         if (value == false) {
-            prologixEthernet.prologixWriteCommand(HP5334Commands.extStopArmOff);
+            gpibTransport.prologixWriteEncoded(HP5334Command.EXT_STOP_ARM_OFF);
         } else {
             throw new IOException("ERROR: Value Must be True or False");
         }
 
         if (value == true && polarity == "positive") {
-            prologixEthernet.prologixWriteCommand(HP5334Commands.extStopArmSlopePos);
+            gpibTransport.prologixWriteEncoded(HP5334Command.EXT_STOP_ARM_SLOPE_POS);
         } else {
             throw new IOException(
                     "ERROR: Value Must be True or False & Polarity Must be Positive or Negative");
         }
 
         if (value == true && polarity == "negative") {
-            prologixEthernet.prologixWriteCommand(HP5334Commands.extStopArmSlopeNeg);
+            gpibTransport.prologixWriteEncoded(HP5334Command.EXT_STOP_ARM_SLOPE_NEG);
         } else {
             throw new IOException(
                     "ERROR: Value Must be True or False & Polarity Must be Positive or Negative");
         }
     }
 
-    private String frequency;
-
     /**
      * Get's the currently measured frequency.
      * 
-     * @param input
-     * @return
+     * @param input "a", "b" or "c"
+     * @return frequency in Hz
      * @throws IllegalArgumentException
      * @throws IOException
      * @throws InterruptedException
@@ -385,114 +407,1033 @@ public class HP5334 extends Instrument {
      */
     public String getFrequency(String input)
             throws IllegalArgumentException, IOException, InterruptedException, TimeoutException {
-        if (input == "a") {
-            prologixEthernet.prologixWriteCommand(HP5334Commands.freqA);
-
-            prologixEthernet.prologixClearReadBuffer();
-
-            frequency =
-                    prologixEthernet.prologixReadLine(ReadlineTerminationMode.CR_LF, 10).toString();
+        if ("a".equalsIgnoreCase(input)) {
+            return String.valueOf(readFrequencyHz(Channel.A));
+        } else if ("b".equalsIgnoreCase(input)) {
+            return String.valueOf(readFrequencyHz(Channel.B));
+        } else if ("c".equalsIgnoreCase(input)) {
+            return String.valueOf(readFrequencyHz(Channel.C));
         } else {
-            throw new IOException("ERROR: Invalid Configuration");
+            throw new IllegalArgumentException("ERROR: Invalid Configuration");
         }
+    }
 
-        if (input == "b") {
-            prologixEthernet.prologixWriteCommand(HP5334Commands.freqB);
-
-            prologixEthernet.prologixClearReadBuffer();
+    /**
+     * Get's the currently measured period.
+     * 
+     * @return period in seconds
+     * @throws IllegalArgumentException
+     * @throws IOException
+     * @throws InterruptedException
+     * @throws TimeoutException
+     */
+    public String getPeriod()
+            throws IllegalArgumentException, IOException, InterruptedException, TimeoutException {
+        return String.valueOf(readPeriodSeconds());
+    }
 
-            frequency =
-                    prologixEthernet.prologixReadLine(ReadlineTerminationMode.CR_LF, 10).toString();
-        } else {
-            throw new IOException("ERROR: Invalid Configuration");
-        }
+    /**
+     * Get's the currently measured time interval.
+     * 
+     * @param delay
+     * @return time interval in seconds
+     * @throws IllegalArgumentException
+     * @throws IOException
+     * @throws InterruptedException
+     * @throws TimeoutException
+     */
+    public String getTimeInterval(boolean delay)
+            throws IllegalArgumentException, IOException, InterruptedException, TimeoutException {
+        return String.valueOf(readTimeIntervalSeconds(delay));
+    }
 
-        if (input == "c") {
-            prologixEthernet.prologixWriteCommand(HP5334Commands.freqC);
+    /**
+     * Get's the currently measured ratio.
+     * 
+     * @return ratio
+     * @throws IllegalArgumentException
+     * @throws IOException
+     * @throws InterruptedException
+     * @throws TimeoutException
+     */
+    public String getRatio()
+            throws IllegalArgumentException, IOException, InterruptedException, TimeoutException {
+        return String.valueOf(readRatio());
+    }
 
-            prologixEthernet.prologixClearReadBuffer();
+    // Measurements
 
-            frequency =
-                    prologixEthernet.prologixReadLine(ReadlineTerminationMode.CR_LF, 10).toString();
-        } else {
-            throw new IOException("ERROR: Invalid Configuration");
+    /**
+     * Reads the frequency on a channel.
+     * 
+     * @param channel
+     * @return frequency in Hz, NaN or infinity on overflow
+     * @throws IllegalArgumentException
+     * @throws IOException
+     * @throws InterruptedException
+     * @throws TimeoutException
+     */
+    public double readFrequencyHz(Channel channel)
+            throws IllegalArgumentException, IOException, InterruptedException, TimeoutException {
+        switch (channel) {
+            case A: {
+                return readMeasurement(HP5334Command.FREQ_A);
+            }
+
+            case B: {
+                return readMeasurement(HP5334Command.FREQ_B);
+            }
+
+            case C: {
+                return readMeasurement(HP5334Command.FREQ_C);
+            }
+
+            default: {
+                throw new IllegalArgumentException("ERROR: Invalid Channel");
+            }
         }
+    }
 
-        return frequency;
+    /**
+     * Reads the period on channel A.
+     * 
+     * @return period in seconds, NaN or infinity on overflow
+     * @throws IllegalArgumentException
+     * @throws IOException
+     * @throws InterruptedException
+     * @throws TimeoutException
+     */
+    public double readPeriodSeconds()
+            throws IllegalArgumentException, IOException, InterruptedException, TimeoutException {
+        return readMeasurement(HP5334Command.PERIOD_A);
     }
 
     /**
-     * Get's the currently measured period.
+     * Reads the time interval from channel A to channel B.
      * 
-     * @return
+     * @param delay
+     * @return time interval in seconds, NaN or infinity on overflow
      * @throws IllegalArgumentException
      * @throws IOException
      * @throws InterruptedException
      * @throws TimeoutException
      */
-    public String getPeriod()
+    public double readTimeIntervalSeconds(boolean delay)
             throws IllegalArgumentException, IOException, InterruptedException, TimeoutException {
-        prologixEthernet.prologixWriteCommand(HP5334Commands.periodA);
+        return readMeasurement(delay ? HP5334Command.TIME_INTERVAL_A_TO_B_DELAY
+                : HP5334Command.TIME_INTERVAL_A_TO_B);
+    }
 
-        prologixEthernet.prologixClearReadBuffer();
+    /**
+     * Reads the ratio of channel A to channel B.
+     * 
+     * @return ratio, NaN or infinity on overflow
+     * @throws IllegalArgumentException
+     * @throws IOException
+     * @throws InterruptedException
+     * @throws TimeoutException
+     */
+    public double readRatio()
+            throws IllegalArgumentException, IOException, InterruptedException, TimeoutException {
+        return readMeasurement(HP5334Command.RATIO_AB);
+    }
+
+    // Asynchronous Measurements
+
+    /**
+     * Reads a measurement on the transport's executor.
+     */
+    private interface Measurement {
+        double read() throws IOException, InterruptedException, TimeoutException;
+    }
 
-        return prologixEthernet.prologixReadLine(ReadlineTerminationMode.CR_LF, 10).toString();
+    /**
+     * Reads the frequency on a channel without blocking the caller. The future
+     * completes on the transport's thread as soon as the reading is framed,
+     * so dependent stages doing more than a little work should be attached
+     * with an executor of their own.
+     * 
+     * @param channel
+     * @return frequency in Hz, NaN or infinity on overflow
+     */
+    public CompletableFuture<Double> readFrequencyHzAsync(Channel channel) {
+        return readAsync(() -> readFrequencyHz(channel));
     }
 
-    private String timeInterval;
+    /**
+     * Reads the period on channel A without blocking the caller.
+     * 
+     * @return period in seconds, NaN or infinity on overflow
+     */
+    public CompletableFuture<Double> readPeriodSecondsAsync() {
+        return readAsync(this::readPeriodSeconds);
+    }
 
     /**
-     * Get's the currently measured time interval.
+     * Reads the time interval from channel A to channel B without blocking the
+     * caller.
      * 
      * @param delay
-     * @return
+     * @return time interval in seconds, NaN or infinity on overflow
+     */
+    public CompletableFuture<Double> readTimeIntervalSecondsAsync(boolean delay) {
+        return readAsync(() -> readTimeIntervalSeconds(delay));
+    }
+
+    /**
+     * Reads the ratio of channel A to channel B without blocking the caller.
+     * 
+     * @return ratio, NaN or infinity on overflow
+     */
+    public CompletableFuture<Double> readRatioAsync() {
+        return readAsync(this::readRatio);
+    }
+
+    /**
+     * Reads the reading the counter has ready without blocking the caller.
+     * 
+     * @return reading, NaN or infinity on overflow
+     */
+    public CompletableFuture<Double> readReadingAsync() {
+        return readAsync(this::readReading);
+    }
+
+    /**
+     * Queues a measurement on the transport's executor. Every instrument on
+     * the transport shares the executor, so measurements reach the wire in the
+     * order they were requested and callers never block on the bus. A future
+     * cancelled before its turn comes is skipped.
+     * 
+     * @param measurement
+     * @return future completed with the reading, or exceptionally with the
+     *         failure
+     */
+    private CompletableFuture<Double> readAsync(Measurement measurement) {
+        CompletableFuture<Double> future = new CompletableFuture<>();
+
+        try {
+            gpibTransport.getTransportExecutor().execute(() -> {
+                if (future.isDone()) {
+                    return;
+                }
+
+                try {
+                    future.complete(measurement.read());
+                } catch (InterruptedException e) {
+                    future.completeExceptionally(e);
+
+                    Thread.currentThread().interrupt();
+                } catch (IOException | TimeoutException | RuntimeException e) {
+                    future.completeExceptionally(e);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            future.completeExceptionally(e);
+        }
+
+        return future;
+    }
+
+    /**
+     * Selects a measurement function, asks the counter to talk and parses the
+     * reading directly from the framed response bytes.
+     * 
+     * @param function
+     * @return reading
      * @throws IllegalArgumentException
      * @throws IOException
      * @throws InterruptedException
      * @throws TimeoutException
      */
-    public String getTimeInterval(boolean delay)
+    private double readMeasurement(HP5334Command function)
             throws IllegalArgumentException, IOException, InterruptedException, TimeoutException {
-        if (delay == false) {
-            prologixEthernet.prologixWriteCommand(HP5334Commands.timeIntervalAToB);
+        synchronized (gpibTransport) {
+            long startNanos = System.nanoTime();
 
-            prologixEthernet.prologixClearReadBuffer();
+            gpibTransport.setBusAddress(getBusAddress());
 
-            timeInterval =
-                    prologixEthernet.prologixReadLine(ReadlineTerminationMode.CR_LF, 10).toString();
-        } else {
-            throw new IOException("ERROR: Value Must be True or False");
-        }
+            gpibTransport.prologixWriteEncoded(function);
 
-        if (delay == true) {
-            prologixEthernet.prologixWriteCommand(HP5334Commands.timeIntervalAToBDelay);
+            double reading = fetchReading();
 
-            prologixEthernet.prologixClearReadBuffer();
+            gpibTransport.getTransportMetrics().recordTransaction(function,
+                    System.nanoTime() - startNanos);
 
-            timeInterval =
-                    prologixEthernet.prologixReadLine(ReadlineTerminationMode.CR_LF, 10).toString();
-        } else {
-            throw new IOException("ERROR: Value Must be True or False");
+            return reading;
         }
-
-        return timeInterval;
     }
 
     /**
-     * Get's the currently measured ratio.
+     * Reads the reading the counter has ready under its current function,
+     * without selecting a function first. Used once the counter has signalled
+     * through SRQ that a reading is ready.
      * 
-     * @return
+     * @return reading, NaN or infinity on overflow
      * @throws IllegalArgumentException
      * @throws IOException
      * @throws InterruptedException
      * @throws TimeoutException
      */
-    public String getRatio()
+    public double readReading()
+            throws IllegalArgumentException, IOException, InterruptedException, TimeoutException {
+        synchronized (gpibTransport) {
+            gpibTransport.setBusAddress(getBusAddress());
+
+            return fetchReading();
+        }
+    }
+
+    private double fetchReading()
             throws IllegalArgumentException, IOException, InterruptedException, TimeoutException {
-        prologixEthernet.prologixWriteCommand(HP5334Commands.ratioAB);
+        gpibTransport.prologixClearReadBuffer();
+
+        gpibTransport.prologixWriteCommand(PrologixCommand.READ_EOI);
+
+        responseBuffer.clear();
+
+        gpibTransport.prologixReadLine(ReadlineTerminationMode.CR_LF, responseBuffer,
+                measurementTimeoutMs);
+
+        responseBuffer.flip();
+
+        try {
+            return AsciiNumberParser.parseDouble(responseBuffer);
+        } catch (NumberFormatException e) {
+            throw new IOException("ERROR: Invalid Reading");
+        }
+    }
+
+    // Dumps
+
+    /**
+     * Get's the calibration data. The dump is read in bulk up to EOI rather
+     * than framed as a line, so it arrives whole however it is terminated.
+     * 
+     * @return calibrationData
+     * @throws IOException
+     * @throws InterruptedException
+     * @throws TimeoutException
+     */
+    public String readCalibrationData() throws IOException, InterruptedException, TimeoutException {
+        return readDump(HP5334Command.TRANSMIT_CAL_DATA);
+    }
+
+    /**
+     * Get's the identification string.
+     * 
+     * @return identification
+     * @throws IOException
+     * @throws InterruptedException
+     * @throws TimeoutException
+     */
+    public String readIdentification() throws IOException, InterruptedException, TimeoutException {
+        return readDump(HP5334Command.INSTRUMENT_ID);
+    }
+
+    private String readDump(HP5334Command command)
+            throws IOException, InterruptedException, TimeoutException {
+        synchronized (gpibTransport) {
+            gpibTransport.setBusAddress(getBusAddress());
+
+            gpibTransport.prologixWriteEncoded(command);
+
+            ByteBuffer response = gpibTransport.prologixReadEOI(measurementTimeoutMs);
+
+            return Charset.forName("US-ASCII").decode(response).toString().trim();
+        }
+    }
+
+    // Service Requests
+
+    /**
+     * Set's the SRQ mask. The counter requests service whenever its status
+     * byte shares a bit with the mask, zero disables service requests.
+     * 
+     * @param mask
+     * @throws IllegalArgumentException
+     * @throws IOException
+     */
+    public void setSrqMask(int mask) throws IllegalArgumentException, IOException {
+        if (mask < 0 || mask > 255) {
+            throw new IllegalArgumentException("ERROR: Invalid SRQ Mask");
+        }
+
+        synchronized (gpibTransport) {
+            gpibTransport.setBusAddress(getBusAddress());
+
+            gpibTransport.prologixWriteEncoded(HP5334Command.SRQ_MASK, mask);
+        }
+    }
+
+    /**
+     * Registers a listener for this counter's service requests with a monitor
+     * on the same transport.
+     * 
+     * @param srqMonitor
+     * @param srqListener
+     * @throws IllegalArgumentException
+     */
+    public void addSrqListener(SrqMonitor srqMonitor, SrqMonitor.SrqListener srqListener)
+            throws IllegalArgumentException {
+        srqMonitor.register(getBusAddress(), srqListener);
+    }
+
+    // Publishing
+
+    private final static int publishBurstSize = 16;
+
+    /**
+     * A reading published by publishReadings().
+     */
+    public static class Reading {
+        private final HP5334Command function;
+        private final double value;
+        private final long timestampNanos;
+
+        private Reading(HP5334Command function, double value, long timestampNanos) {
+            this.function = function;
+            this.value = value;
+            this.timestampNanos = timestampNanos;
+        }
+
+        public HP5334Command getFunction() {
+            return function;
+        }
+
+        /**
+         * Get's the reading.
+         * 
+         * @return value, NaN or infinity on overflow
+         */
+        public double getValue() {
+            return value;
+        }
+
+        /**
+         * Get's the System.nanoTime() at which the reading was framed.
+         * 
+         * @return timestampNanos
+         */
+        public long getTimestampNanos() {
+            return timestampNanos;
+        }
+
+        @Override
+        public String toString() {
+            return function.getCommand() + " " + value + " @" + timestampNanos;
+        }
+    }
+
+    /**
+     * Get's a publisher of readings of a measurement function. Every subscriber
+     * gets its own stream, read only as fast as it requests readings: while a
+     * subscriber has no outstanding demand the counter is not read at all, so
+     * a slow subscriber slows the acquisition instead of readings piling up.
+     * 
+     * Readings are taken on the transport's executor in bursts of at most 16,
+     * with the next ++read eoi queued behind the one in flight, and the bus is
+     * released between bursts so other work on the transport is not starved.
+     * Signals arrive on the transport's thread, so onNext should hand heavy
+     * work to an executor of its own. A read that fails ends the stream with
+     * onError. The counter should not be streaming at the same time.
+     * 
+     * @param function one of the HP5334Command measurement functions
+     * @return publisher
+     * @throws IllegalArgumentException
+     */
+    public Flow.Publisher<Reading> publishReadings(HP5334Command function)
+            throws IllegalArgumentException {
+        if (function == null || !function.getCommand().startsWith("FN")) {
+            throw new IllegalArgumentException("ERROR: Invalid Function");
+        }
+
+        return subscriber -> {
+            if (subscriber == null) {
+                throw new NullPointerException();
+            }
+
+            ReadingSubscription readingSubscription = new ReadingSubscription(function, subscriber);
+
+            subscriber.onSubscribe(readingSubscription);
+
+            readingSubscription.start();
+        };
+    }
+
+    /**
+     * Reads against a subscriber's demand. At most one burst is queued on the
+     * executor at a time, and a burst never reads more than is demanded.
+     * Nothing is read or signalled until onSubscribe has returned, even if it
+     * requested readings.
+     */
+    private class ReadingSubscription implements Flow.Subscription, Runnable {
+        private final HP5334Command function;
+        private final Flow.Subscriber<? super Reading> subscriber;
+
+        private final AtomicLong demand = new AtomicLong();
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+
+        private final ByteBuffer burstLine = ByteBuffer.allocate(responseBufferCapacity);
+        private final double[] burstValues = new double[publishBurstSize];
+        private final long[] burstTimestamps = new long[publishBurstSize];
+
+        private volatile boolean started;
+        private volatile boolean cancelled;
+        private volatile IllegalArgumentException demandFailure;
+
+        private ReadingSubscription(HP5334Command function, Flow.Subscriber<? super Reading> subscriber) {
+            this.function = function;
+            this.subscriber = subscriber;
+        }
+
+        @Override
+        public void request(long n) {
+            if (cancelled) {
+                return;
+            }
+
+            if (n <= 0) {
+                demandFailure = new IllegalArgumentException("ERROR: Invalid Demand");
+
+                if (started) {
+                    failDemand();
+                }
+
+                return;
+            }
+
+            long current;
+
+            do {
+                current = demand.get();
+            } while (!demand.compareAndSet(current, current + n < 0 ? Long.MAX_VALUE : current + n));
+
+            schedule();
+        }
+
+        @Override
+        public void cancel() {
+            cancelled = true;
+        }
+
+        /**
+         * Starts reading against whatever was requested from onSubscribe, once
+         * it has returned.
+         */
+        private void start() {
+            started = true;
+
+            if (demandFailure != null) {
+                failDemand();
+            } else {
+                schedule();
+            }
+        }
+
+        private void failDemand() {
+            IllegalArgumentException demandFailure = this.demandFailure;
+
+            // Signal from the transport's thread, after any burst in flight
+            try {
+                gpibTransport.getTransportExecutor().execute(() -> fail(demandFailure));
+            } catch (RejectedExecutionException rejected) {
+                fail(demandFailure);
+            }
+        }
+
+        private void schedule() {
+            if (!started || cancelled || demand.get() == 0 || !scheduled.compareAndSet(false, true)) {
+                return;
+            }
+
+            try {
+                gpibTransport.getTransportExecutor().execute(this);
+            } catch (RejectedExecutionException e) {
+                scheduled.set(false);
+
+                fail(e);
+            }
+        }
+
+        @Override
+        public void run() {
+            int count = (int) Math.min(publishBurstSize, demand.get());
+
+            try {
+                if (count > 0 && !cancelled) {
+                    readBurst(count);
+
+                    for (int i = 0; i < count && !cancelled; i++) {
+                        demand.decrementAndGet();
+
+                        subscriber.onNext(new Reading(function, burstValues[i], burstTimestamps[i]));
+                    }
+                }
+            } catch (IOException | TimeoutException | RuntimeException e) {
+                fail(e);
+            } catch (InterruptedException e) {
+                fail(e);
+
+                Thread.currentThread().interrupt();
+            } finally {
+                scheduled.set(false);
+            }
+
+            schedule();
+        }
+
+        /**
+         * Reads a burst with one read queued behind the one in flight, so the
+         * round trip overlaps the counter's next measurement. Every read issued
+         * has been answered or waited out by the time it returns, so none is
+         * left on the adapter when the transport's lock is released.
+         * 
+         * @param count
+         * @throws IOException
+         * @throws InterruptedException
+         * @throws TimeoutException
+         */
+        private void readBurst(int count) throws IOException, InterruptedException, TimeoutException {
+            synchronized (gpibTransport) {
+                gpibTransport.setBusAddress(getBusAddress());
+                gpibTransport.prologixClearReadBuffer();
+                gpibTransport.prologixWriteEncoded(function);
+
+                int issued = 0;
+                int answered = 0;
+
+                try {
+                    for (int i = 0; i < count; i++) {
+                        while (issued < count && issued - i < streamReadsOutstanding) {
+                            gpibTransport.prologixWriteCommand(PrologixCommand.READ_EOI);
+
+                            issued++;
+                        }
+
+                        burstLine.clear();
+
+                        try {
+                            gpibTransport.prologixReadLine(ReadlineTerminationMode.CR_LF, burstLine,
+                                    measurementTimeoutMs);
+                        } catch (IOException e) {
+                            answered++;
+
+                            throw e;
+                        }
+
+                        answered++;
+
+                        burstTimestamps[i] = System.nanoTime();
+
+                        burstLine.flip();
+
+                        try {
+                            burstValues[i] = AsciiNumberParser.parseDouble(burstLine);
+                        } catch (NumberFormatException e) {
+                            throw new IOException("ERROR: Invalid Reading");
+                        }
+                    }
+                } finally {
+                    if (answered < issued) {
+                        waitOutReads(issued - answered);
+                    }
+
+                    if (answered < count) {
+                        gpibTransport.prologixClearReadBuffer();
+                    }
+                }
+            }
+        }
+
+        /**
+         * Consumes the replies of reads still queued on the adapter, late or
+         * not, so none is framed by the next burst. A read that timed out is
+         * still queued, its reply may yet arrive.
+         * 
+         * @param readsOutstanding
+         * @throws InterruptedException
+         */
+        private void waitOutReads(int readsOutstanding) throws InterruptedException {
+            for (int i = 0; i < readsOutstanding; i++) {
+                burstLine.clear();
+
+                try {
+                    gpibTransport.prologixReadLine(ReadlineTerminationMode.CR_LF, burstLine,
+                            measurementTimeoutMs);
+                } catch (TimeoutException | IOException e) {
+                    // Answered or given up on, either way no longer outstanding
+                }
+            }
+        }
+
+        private void fail(Throwable throwable) {
+            if (cancelled) {
+                return;
+            }
+
+            cancelled = true;
+
+            subscriber.onError(throwable);
+        }
+    }
+
+    // Streaming
+
+    /**
+     * Receives batches of streamed readings. The arrays are reused between
+     * calls and are only valid for the duration of the call.
+     */
+    public interface StreamListener {
+        void readingsAvailable(double[] values, long[] timestampsNanos, int count);
+
+        /**
+         * Called on the stream thread when the stream ended because the
+         * transport failed, after the readings taken before the failure have
+         * been delivered.
+         * 
+         * @param streamFailure
+         */
+        default void streamFailed(IOException streamFailure) {
+
+        }
+    }
+
+    private final static int streamBufferCapacity = 65536;
+    private final static int streamBatchSize = 256;
+    private final static int streamReadsOutstanding = 2;
+    private final static int streamBurstSize = 16;
+    private final static long streamBatchNanos = TimeUnit.MILLISECONDS.toNanos(10);
 
-        prologixEthernet.prologixClearReadBuffer();
+    private final SampleRingBuffer streamBuffer = new SampleRingBuffer(streamBufferCapacity);
 
-        return prologixEthernet.prologixReadLine(ReadlineTerminationMode.CR_LF, 10).toString();
+    private Thread streamThread;
+    private boolean stopping;
+    private boolean stopped;
+    private volatile boolean streaming;
+    private volatile StreamListener streamListener;
+    private volatile IOException streamFailure;
+
+    private volatile long streamedSamples;
+    private volatile long droppedSamples;
+    private volatile long streamErrors;
+
+    /**
+     * Puts the counter in high speed output and starts reading the selected
+     * measurement function continuously. Readings are stamped with
+     * System.nanoTime() when they are framed and collected in a ring that can
+     * be drained with drainReadings(), or handed to the listener in batches
+     * when one is given. No other commands should be sent to the counter while
+     * it is streaming.
+     * 
+     * Readings are taken in bursts of 16, each holding the transport's lock,
+     * so other instruments on the same transport can still be used between
+     * bursts. The listener is called between bursts, without the lock.
+     * 
+     * A stream that ended on its own, because the transport failed, has to be
+     * stopped before another can be started.
+     * 
+     * @param function one of the HP5334Command measurement functions
+     * @param streamListener optional, null to only use drainReadings()
+     * @throws IllegalArgumentException
+     * @throws IOException
+     */
+    public synchronized void startStreaming(HP5334Command function, StreamListener streamListener)
+            throws IllegalArgumentException, IOException {
+        if (function == null || !function.getCommand().startsWith("FN")) {
+            throw new IllegalArgumentException("ERROR: Invalid Function");
+        }
+
+        if (streaming || stopping || streamThread != null) {
+            throw new IOException("ERROR: Already Streaming");
+        }
+
+        synchronized (gpibTransport) {
+            gpibTransport.setBusAddress(getBusAddress());
+            gpibTransport.prologixClearReadBuffer();
+            gpibTransport.prologixWriteEncoded(function);
+            gpibTransport.prologixWriteEncoded(HP5334Command.HIGH_SPEED_ON);
+        }
+
+        this.streamBuffer.clear();
+        this.streamListener = streamListener;
+        this.streamFailure = null;
+        this.stopped = false;
+        this.streaming = true;
+
+        streamThread = new Thread(this::streamLoop, "HP5334 Stream " + getInstrumentName());
+        streamThread.setDaemon(true);
+        streamThread.start();
+    }
+
+    /**
+     * Stops streaming, delivers any readings still held for the listener and
+     * takes the counter out of high speed output. May be called from the
+     * listener, the stream then ends once the listener returns. Returns at
+     * once if another thread is already stopping the stream.
+     * 
+     * The stream thread is joined without holding the instrument's lock, so a
+     * listener calling this while another thread stops the stream does not
+     * deadlock.
+     * 
+     * @throws IOException if the stream ended because the transport failed
+     * @throws InterruptedException
+     */
+    public void stopStreaming() throws IOException, InterruptedException {
+        Thread streamThread;
+
+        synchronized (this) {
+            streamThread = this.streamThread;
+
+            if (streamThread == null || stopping) {
+                return;
+            }
+
+            stopping = true;
+            streaming = false;
+        }
+
+        boolean highSpeedOff = false;
+
+        try {
+            if (streamThread != Thread.currentThread()) {
+                streamThread.join();
+            }
+
+            IOException streamFailure = this.streamFailure;
+
+            try {
+                synchronized (gpibTransport) {
+                    gpibTransport.setBusAddress(getBusAddress());
+                    gpibTransport.prologixWriteEncoded(HP5334Command.HIGH_SPEED_OFF);
+                }
+            } catch (IOException e) {
+                if (streamFailure == null) {
+                    throw e;
+                }
+
+                streamFailure.addSuppressed(e);
+            }
+
+            highSpeedOff = true;
+
+            if (streamFailure != null) {
+                throw new IOException("ERROR: Stream Failed", streamFailure);
+            }
+        } finally {
+            synchronized (this) {
+                this.stopping = false;
+                this.stopped = highSpeedOff;
+
+                // A stream stopped from its own listener is still finishing,
+                // it releases itself once it has exited
+                if (highSpeedOff && !streamThread.isAlive()) {
+                    this.streamThread = null;
+                }
+            }
+        }
+    }
+
+    /**
+     * Check's if the counter is streaming.
+     * 
+     * @return streaming
+     */
+    public boolean isStreaming() {
+        return streaming;
+    }
+
+    /**
+     * Moves streamed readings into the arrays. Only meant for use when no
+     * listener was given to startStreaming().
+     * 
+     * @param values
+     * @param timestampsNanos
+     * @param offset
+     * @param length
+     * @return number of readings moved
+     */
+    public int drainReadings(double[] values, long[] timestampsNanos, int offset, int length) {
+        return streamBuffer.drain(values, timestampsNanos, offset, length);
+    }
+
+    /**
+     * Get's the number of readings captured since streaming began.
+     * 
+     * @return streamedSamples
+     */
+    public long getStreamedSamples() {
+        return streamedSamples;
+    }
+
+    /**
+     * Get's the number of readings dropped because the consumer fell behind.
+     * 
+     * @return droppedSamples
+     */
+    public long getDroppedSamples() {
+        return droppedSamples;
+    }
+
+    /**
+     * Get's the number of reads that timed out or could not be parsed.
+     * 
+     * @return streamErrors
+     */
+    public long getStreamErrors() {
+        return streamErrors;
+    }
+
+    private void streamLoop() {
+        ByteBuffer streamLine = ByteBuffer.allocate(responseBufferCapacity);
+        StreamListener streamListener = this.streamListener;
+
+        double[] batchValues = new double[streamBatchSize];
+        long[] batchTimestamps = new long[streamBatchSize];
+
+        long lastDispatchNanos = System.nanoTime();
+
+        try {
+            while (streaming) {
+                synchronized (gpibTransport) {
+                    // Another user of the transport may have addressed a
+                    // different instrument since the last burst
+                    gpibTransport.setBusAddress(getBusAddress());
+                    gpibTransport.prologixClearReadBuffer();
+
+                    readStreamBurst(streamLine);
+                }
+
+                long currentNanos = System.nanoTime();
+
+                if (streamListener != null && (streamBuffer.available() >= streamBatchSize
+                        || currentNanos - lastDispatchNanos >= streamBatchNanos)) {
+                    dispatch(streamListener, batchValues, batchTimestamps);
+
+                    lastDispatchNanos = currentNanos;
+                }
+            }
+        } catch (IOException e) {
+            streamErrors++;
+            streamFailure = e;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            streaming = false;
+
+            if (streamListener != null) {
+                dispatch(streamListener, batchValues, batchTimestamps);
+
+                IOException streamFailure = this.streamFailure;
+
+                if (streamFailure != null) {
+                    streamListener.streamFailed(streamFailure);
+                }
+            }
+
+            streamExited();
+        }
+    }
+
+    /**
+     * Releases the stream once its thread is done, if it has already been
+     * stopped from its own listener.
+     */
+    private synchronized void streamExited() {
+        // Still set after a failure until stopStreaming() has reported it
+        if (!stopping && streamThread == Thread.currentThread()
+                && (stopped || streamFailure == null)) {
+            streamThread = null;
+        }
+    }
+
+    /**
+     * Reads one burst with a read queued behind the one in flight, so the
+     * network round trip overlaps the counter's next measurement. Every read
+     * issued has been answered or timed out by the time it returns, so none is
+     * left on the adapter when the transport's lock is released. The caller
+     * holds the lock.
+     * 
+     * @param streamLine
+     * @throws IOException
+     * @throws InterruptedException
+     */
+    private void readStreamBurst(ByteBuffer streamLine) throws IOException, InterruptedException {
+        int readsOutstanding = 0;
+
+        try {
+            for (int i = 0; i < streamBurstSize && streaming; i++) {
+                while (readsOutstanding < streamReadsOutstanding
+                        && i + readsOutstanding < streamBurstSize) {
+                    gpibTransport.prologixWriteCommand(PrologixCommand.READ_EOI);
+
+                    readsOutstanding++;
+                }
+
+                streamLine.clear();
+
+                try {
+                    gpibTransport.prologixReadLine(ReadlineTerminationMode.CR_LF, streamLine,
+                            measurementTimeoutMs);
+                } catch (TimeoutException e) {
+                    streamErrors++;
+                    readsOutstanding--;
+
+                    return;
+                } catch (IOException e) {
+                    streamErrors++;
+                    readsOutstanding--;
+
+                    continue;
+                }
+
+                long timestampNanos = System.nanoTime();
+
+                readsOutstanding--;
+
+                streamLine.flip();
+
+                double value;
+
+                try {
+                    value = AsciiNumberParser.parseDouble(streamLine);
+                } catch (NumberFormatException e) {
+                    streamErrors++;
+
+                    continue;
+                }
+
+                streamedSamples++;
+
+                if (!streamBuffer.offer(value, timestampNanos)) {
+                    droppedSamples++;
+                }
+            }
+        } finally {
+            // Consume the replies of reads still queued on the adapter, late or
+            // not, so none is framed as a later reading
+            while (readsOutstanding > 0) {
+                streamLine.clear();
+
+                try {
+                    gpibTransport.prologixReadLine(ReadlineTerminationMode.CR_LF, streamLine,
+                            measurementTimeoutMs);
+                } catch (TimeoutException | IOException e) {
+                    // Answered or given up on, either way no longer outstanding
+                } finally {
+                    readsOutstanding--;
+                }
+            }
+
+            gpibTransport.prologixClearReadBuffer();
+        }
+    }
+
+    private void dispatch(StreamListener streamListener, double[] batchValues,
+            long[] batchTimestamps) {
+        int count;
+
+        while ((count = streamBuffer.drain(batchValues, batchTimestamps, 0, batchValues.length)) > 0) {
+            streamListener.readingsAvailable(batchValues, batchTimestamps, count);
+        }
     }
 }
@@ -0,0 +1,246 @@
+/*
+ * @(#)AsciiNumberParser.java
+ * 
+ * Copyright (c) 2022 Cody L. Wellman. All rights reserved. This work is
+ * licensed under the terms of the MIT license which can be found in the
+ * root directory of this project.
+ * 
+ * Author: Cody L. Wellman <zecoderex@gmail.com>
+ * 
+ * Created: October 17, 2026
+ * Updated: October 17, 2026
+ */
+
+package xyz.zagdrath.gpiblib.util;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Parses ASCII instrument readings straight from bytes into doubles without
+ * creating intermediate Strings.
+ * 
+ * A reading is an optional header of letters and spaces (for example a
+ * function mnemonic), an optional sign, a mantissa with an optional decimal
+ * point, and an optional exponent introduced by E or D. Trailing spaces and
+ * commas are ignored. A header with no digits after it, as instruments send
+ * on overflow, parses to NaN, and the IEEE 488.2 overflow value 9.9E+37
+ * parses to infinity of the same sign.
+ */
+public final class AsciiNumberParser {
+    public final static double overflowValue = 9.9E37;
+
+    // 18 nines still fit a long, a 19th digit can overflow it
+    private final static int maxMantissaDigits = 18;
+    private final static int maxExponent = 9999;
+
+    private final static double[] powersOfTen = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+            1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+
+    private AsciiNumberParser() {
+
+    }
+
+    /**
+     * Parses the bytes between the buffer's position and limit. The buffer's
+     * position is not changed.
+     * 
+     * @param byteBuffer
+     * @return value
+     * @throws NumberFormatException
+     */
+    public static double parseDouble(ByteBuffer byteBuffer) throws NumberFormatException {
+        return parseDouble(byteBuffer, byteBuffer.position(), byteBuffer.remaining());
+    }
+
+    /**
+     * Parses a region of the array.
+     * 
+     * @param bytes
+     * @param offset
+     * @param length
+     * @return value
+     * @throws NumberFormatException
+     */
+    public static double parseDouble(byte[] bytes, int offset, int length)
+            throws NumberFormatException {
+        return parseDouble(ByteBuffer.wrap(bytes), offset, length);
+    }
+
+    /**
+     * Parses a region of the buffer using absolute gets.
+     * 
+     * @param byteBuffer
+     * @param offset
+     * @param length
+     * @return value
+     * @throws NumberFormatException
+     */
+    public static double parseDouble(ByteBuffer byteBuffer, int offset, int length)
+            throws NumberFormatException {
+        int index = offset;
+        int end = offset + length;
+
+        // Header
+        while (index < end && isHeader(byteBuffer.get(index))) {
+            index++;
+        }
+
+        if (index == end) {
+            if (index > offset) {
+                return Double.NaN;
+            }
+
+            throw new NumberFormatException("ERROR: Empty Reading");
+        }
+
+        // Sign
+        boolean negative = false;
+        byte b = byteBuffer.get(index);
+
+        if (b == '+' || b == '-') {
+            negative = b == '-';
+            index++;
+        }
+
+        // Mantissa
+        long mantissa = 0;
+        int mantissaDigits = 0;
+        int exponent = 0;
+        boolean digitSeen = false;
+        boolean pointSeen = false;
+
+        for (; index < end; index++) {
+            b = byteBuffer.get(index);
+
+            if (b >= '0' && b <= '9') {
+                digitSeen = true;
+
+                if (mantissaDigits < maxMantissaDigits) {
+                    if (mantissa != 0 || b != '0') {
+                        mantissa = mantissa * 10 + (b - '0');
+                        mantissaDigits++;
+                    }
+
+                    if (pointSeen) {
+                        exponent--;
+                    }
+                } else if (!pointSeen) {
+                    exponent++;
+                }
+            } else if (b == '.' && !pointSeen) {
+                pointSeen = true;
+            } else {
+                break;
+            }
+        }
+
+        if (!digitSeen) {
+            throw new NumberFormatException("ERROR: Invalid Reading");
+        }
+
+        // Exponent
+        if (index < end && isExponentMarker(byteBuffer.get(index))) {
+            index++;
+
+            boolean exponentNegative = false;
+
+            if (index < end && (byteBuffer.get(index) == '+' || byteBuffer.get(index) == '-')) {
+                exponentNegative = byteBuffer.get(index) == '-';
+                index++;
+            }
+
+            int exponentValue = 0;
+            int exponentStart = index;
+
+            for (; index < end; index++) {
+                b = byteBuffer.get(index);
+
+                if (b < '0' || b > '9') {
+                    break;
+                }
+
+                if (exponentValue < maxExponent) {
+                    exponentValue = exponentValue * 10 + (b - '0');
+                }
+            }
+
+            if (index == exponentStart) {
+                throw new NumberFormatException("ERROR: Invalid Exponent");
+            }
+
+            exponent += exponentNegative ? -exponentValue : exponentValue;
+        }
+
+        // Trailer
+        for (; index < end; index++) {
+            b = byteBuffer.get(index);
+
+            if (b != ' ' && b != ',' && b != '\r' && b != '\n') {
+                throw new NumberFormatException("ERROR: Invalid Reading");
+            }
+        }
+
+        double value = scale(mantissa, exponent);
+
+        if (value >= overflowValue) {
+            value = Double.POSITIVE_INFINITY;
+        }
+
+        return negative ? -value : value;
+    }
+
+    /**
+     * Check's if a value is the overflow marker produced by this parser.
+     * 
+     * @param value
+     * @return true on overflow
+     */
+    public static boolean isOverflow(double value) {
+        return Double.isNaN(value) || Double.isInfinite(value);
+    }
+
+    private static double scale(long mantissa, int exponent) {
+        if (mantissa == 0) {
+            return 0.0;
+        }
+
+        // Exact whenever the mantissa and the power of ten are both exact doubles
+        if (mantissa < (1L << 53) && exponent >= -22 && exponent <= 22) {
+            return exponent >= 0
+                    ? mantissa * powersOfTen[exponent]
+                    : mantissa / powersOfTen[-exponent];
+        }
+
+        if (exponent > 330) {
+            return Double.POSITIVE_INFINITY;
+        }
+
+        if (exponent < -360) {
+            return 0.0;
+        }
+
+        double value = mantissa;
+
+        while (exponent > 22) {
+            value *= powersOfTen[22];
+            exponent -= 22;
+        }
+
+        while (exponent < -22) {
+            value /= powersOfTen[22];
+            exponent += 22;
+        }
+
+        return exponent >= 0 ? value * powersOfTen[exponent] : value / powersOfTen[-exponent];
+    }
+
+    private static boolean isHeader(byte b) {
+        return b == ' ' || b == '\t' || (b >= 'A' && b <= 'Z') || (b >= 'a' && b <= 'z');
+    }
+
+    private static boolean isExponentMarker(byte b) {
+        return b == 'E' || b == 'e' || b == 'D' || b == 'd';
+    }
+}
@@ -0,0 +1,487 @@
+/*
+ * @(#)ByteRingBuffer.java
+ * 
+ * Copyright (c) 2022 Cody L. Wellman. All rights reserved. This work is
+ * licensed under the terms of the MIT license which can be found in the
+ * root directory of this project.
+ * 
+ * Author: Cody L. Wellman <zecoderex@gmail.com>
+ * 
+ * Created: October 17, 2026
+ * Updated: October 17, 2026
+ */
+
+package xyz.zagdrath.gpiblib.util;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Bounded single-producer/single-consumer ring buffer of primitive bytes.
+ * 
+ * Exactly one thread may call the write methods and exactly one thread may
+ * call the read methods. Positions are free running longs, the array index is
+ * the position masked by the capacity, so the capacity is always a power of
+ * two. Nothing on either path allocates.
+ * 
+ * Either side can wait for the other: the consumer for bytes to arrive and
+ * the producer for bytes to be consumed, so a producer that must not lose
+ * bytes can hold back instead of overrunning.
+ */
+public class ByteRingBuffer {
+    private final byte[] buffer;
+    private final int mask;
+    private final ByteBuffer view;
+
+    private volatile long readPosition;
+    private volatile long writePosition;
+
+    private volatile Thread waitingReader;
+    private volatile Thread waitingWriter;
+    private volatile boolean closed;
+
+    /**
+     * Constructs a ring buffer holding at least the requested number of bytes.
+     * 
+     * @param capacity
+     * @throws IllegalArgumentException
+     */
+    public ByteRingBuffer(int capacity) throws IllegalArgumentException {
+        if (capacity <= 0 || capacity > (1 << 30)) {
+            throw new IllegalArgumentException("ERROR: Invalid Capacity");
+        }
+
+        int size = Integer.highestOneBit(capacity);
+
+        if (size < capacity) {
+            size <<= 1;
+        }
+
+        this.buffer = new byte[size];
+        this.mask = size - 1;
+        this.view = ByteBuffer.wrap(buffer).asReadOnlyBuffer();
+    }
+
+    /**
+     * Get's the capacity.
+     * 
+     * @return capacity
+     */
+    public int capacity() {
+        return buffer.length;
+    }
+
+    /**
+     * Get's the number of bytes waiting to be read.
+     * 
+     * @return available
+     */
+    public int available() {
+        return (int) (writePosition - readPosition);
+    }
+
+    /**
+     * Get's the number of bytes that can be written without overrunning.
+     * 
+     * @return remaining
+     */
+    public int remaining() {
+        return buffer.length - available();
+    }
+
+    // Producer
+
+    /**
+     * Writes as many bytes as fit. Bytes that do not fit are not written, the
+     * caller either waits for space with awaitSpace() or counts them as an
+     * overrun.
+     * 
+     * @param bytes
+     * @param offset
+     * @param length
+     * @return number of bytes written
+     */
+    public int write(byte[] bytes, int offset, int length) {
+        long writePosition = this.writePosition;
+        int count = Math.min(length, buffer.length - (int) (writePosition - readPosition));
+
+        if (count <= 0) {
+            return 0;
+        }
+
+        int index = (int) writePosition & mask;
+        int firstPart = Math.min(count, buffer.length - index);
+
+        System.arraycopy(bytes, offset, buffer, index, firstPart);
+        System.arraycopy(bytes, offset + firstPart, buffer, 0, count - firstPart);
+
+        publish(writePosition + count);
+
+        return count;
+    }
+
+    /**
+     * Writes as many of the remaining bytes of the byte buffer as fit,
+     * advancing its position by the number written.
+     * 
+     * @param byteBuffer
+     * @return number of bytes written
+     */
+    public int write(ByteBuffer byteBuffer) {
+        long writePosition = this.writePosition;
+        int count = Math.min(byteBuffer.remaining(),
+                buffer.length - (int) (writePosition - readPosition));
+
+        if (count <= 0) {
+            return 0;
+        }
+
+        int index = (int) writePosition & mask;
+        int firstPart = Math.min(count, buffer.length - index);
+
+        byteBuffer.get(buffer, index, firstPart);
+        byteBuffer.get(buffer, 0, count - firstPart);
+
+        publish(writePosition + count);
+
+        return count;
+    }
+
+    private void publish(long writePosition) {
+        this.writePosition = writePosition;
+
+        wakeReader();
+    }
+
+    /**
+     * Waits until at least the requested number of bytes can be written, the
+     * deadline passes or the buffer is closed.
+     * 
+     * @param count at most capacity()
+     * @param deadlineNanos deadline on the System.nanoTime() clock
+     * @return true if the space is free, false on timeout or once closed
+     * @throws InterruptedException
+     */
+    public boolean awaitSpace(int count, long deadlineNanos) throws InterruptedException {
+        if (remaining() >= count) {
+            return true;
+        }
+
+        Thread currentThread = Thread.currentThread();
+
+        try {
+            for (;;) {
+                waitingWriter = currentThread;
+
+                if (remaining() >= count) {
+                    return true;
+                }
+
+                if (closed) {
+                    return false;
+                }
+
+                long remainingNanos = deadlineNanos - System.nanoTime();
+
+                if (remainingNanos <= 0) {
+                    return false;
+                }
+
+                LockSupport.parkNanos(this, remainingNanos);
+
+                if (Thread.interrupted()) {
+                    throw new InterruptedException();
+                }
+            }
+        } finally {
+            waitingWriter = null;
+        }
+    }
+
+    /**
+     * Marks that nothing more will be written, for example because the
+     * connection feeding the buffer was lost, and wakes a waiting reader and
+     * writer. Bytes already written can still be read.
+     */
+    public void close() {
+        closed = true;
+
+        wakeReader();
+        wakeWriter();
+    }
+
+    /**
+     * Allows writing again after close(), before a new producer starts.
+     */
+    public void reopen() {
+        closed = false;
+    }
+
+    /**
+     * Check's if the buffer has been closed.
+     * 
+     * @return closed
+     */
+    public boolean isClosed() {
+        return closed;
+    }
+
+    private void wakeReader() {
+        Thread waitingReader = this.waitingReader;
+
+        if (waitingReader != null) {
+            LockSupport.unpark(waitingReader);
+        }
+    }
+
+    /**
+     * Wakes a writer waiting for space, for example so that it can see it is
+     * being stopped.
+     */
+    public void wakeWriter() {
+        Thread waitingWriter = this.waitingWriter;
+
+        if (waitingWriter != null) {
+            LockSupport.unpark(waitingWriter);
+        }
+    }
+
+    // Consumer
+
+    /**
+     * Waits until at least the requested number of bytes are available, the
+     * deadline passes or the buffer is closed.
+     * 
+     * @param count
+     * @param deadlineNanos deadline on the System.nanoTime() clock
+     * @return true if the bytes are available, false on timeout or once closed
+     * @throws InterruptedException
+     */
+    public boolean await(int count, long deadlineNanos) throws InterruptedException {
+        if (available() >= count) {
+            return true;
+        }
+
+        Thread currentThread = Thread.currentThread();
+
+        try {
+            for (;;) {
+                waitingReader = currentThread;
+
+                if (available() >= count) {
+                    return true;
+                }
+
+                if (closed) {
+                    return false;
+                }
+
+                long remainingNanos = deadlineNanos - System.nanoTime();
+
+                if (remainingNanos <= 0) {
+                    return false;
+                }
+
+                LockSupport.parkNanos(this, remainingNanos);
+
+                if (Thread.interrupted()) {
+                    throw new InterruptedException();
+                }
+            }
+        } finally {
+            waitingReader = null;
+        }
+    }
+
+    /**
+     * Reads a single byte, waiting until the deadline for one to arrive.
+     * 
+     * @param deadlineNanos deadline on the System.nanoTime() clock
+     * @return the byte as an unsigned value, or -1 on timeout or once closed
+     * @throws InterruptedException
+     */
+    public int read(long deadlineNanos) throws InterruptedException {
+        if (!await(1, deadlineNanos)) {
+            return -1;
+        }
+
+        long readPosition = this.readPosition;
+        int value = buffer[(int) readPosition & mask] & 0xff;
+
+        consume(readPosition + 1);
+
+        return value;
+    }
+
+    /**
+     * Get's an unread byte without consuming it.
+     * 
+     * @param index offset from the read position, less than available()
+     * @return the byte
+     */
+    public byte peek(int index) {
+        return buffer[(int) (readPosition + index) & mask];
+    }
+
+    /**
+     * Get's a read-only view of unread bytes without copying them. The view
+     * stops at the end of the backing array, so it may hold fewer bytes than
+     * requested, the rest follow once the viewed bytes have been skipped. The
+     * producer never writes over unread bytes, so the view stays valid until
+     * they are skipped. The same view is returned by every call.
+     * 
+     * @param length at most available()
+     * @return view positioned at the first unread byte
+     */
+    public ByteBuffer view(int length) {
+        int index = (int) readPosition & mask;
+
+        view.limit(index + Math.min(length, buffer.length - index));
+        view.position(index);
+
+        return view;
+    }
+
+    /**
+     * Scans unread bytes for a value. The scan runs over at most two contiguous
+     * regions of the backing array rather than masking every index.
+     * 
+     * @param value
+     * @param fromIndex offset from the read position to start at, inclusive
+     * @param toIndex offset from the read position to stop at, exclusive
+     * @return offset of the first match from the read position, or -1
+     */
+    public int indexOf(byte value, int fromIndex, int toIndex) {
+        int count = toIndex - fromIndex;
+
+        if (count <= 0) {
+            return -1;
+        }
+
+        int start = (int) (readPosition + fromIndex) & mask;
+        int firstPart = Math.min(count, buffer.length - start);
+
+        for (int i = start, end = start + firstPart; i < end; i++) {
+            if (buffer[i] == value) {
+                return fromIndex + (i - start);
+            }
+        }
+
+        for (int i = 0, end = count - firstPart; i < end; i++) {
+            if (buffer[i] == value) {
+                return fromIndex + firstPart + i;
+            }
+        }
+
+        return -1;
+    }
+
+    /**
+     * Moves up to the requested number of bytes into the array.
+     * 
+     * @param bytes
+     * @param offset
+     * @param length
+     * @return number of bytes moved
+     */
+    public int drain(byte[] bytes, int offset, int length) {
+        long readPosition = this.readPosition;
+        int count = Math.min(length, (int) (writePosition - readPosition));
+
+        if (count <= 0) {
+            return 0;
+        }
+
+        int index = (int) readPosition & mask;
+        int firstPart = Math.min(count, buffer.length - index);
+
+        System.arraycopy(buffer, index, bytes, offset, firstPart);
+        System.arraycopy(buffer, 0, bytes, offset + firstPart, count - firstPart);
+
+        consume(readPosition + count);
+
+        return count;
+    }
+
+    /**
+     * Moves as many bytes as fit into the byte buffer, advancing its position.
+     * 
+     * @param byteBuffer
+     * @return number of bytes moved
+     */
+    public int drain(ByteBuffer byteBuffer) {
+        long readPosition = this.readPosition;
+        int count = Math.min(byteBuffer.remaining(), (int) (writePosition - readPosition));
+
+        if (count <= 0) {
+            return 0;
+        }
+
+        int index = (int) readPosition & mask;
+        int firstPart = Math.min(count, buffer.length - index);
+
+        byteBuffer.put(buffer, index, firstPart);
+        byteBuffer.put(buffer, 0, count - firstPart);
+
+        consume(readPosition + count);
+
+        return count;
+    }
+
+    /**
+     * Moves exactly the requested number of bytes into the byte buffer.
+     * 
+     * @param byteBuffer
+     * @param length at most available() and the remaining space of the buffer
+     */
+    public void drain(ByteBuffer byteBuffer, int length) {
+        long readPosition = this.readPosition;
+        int index = (int) readPosition & mask;
+        int firstPart = Math.min(length, buffer.length - index);
+
+        byteBuffer.put(buffer, index, firstPart);
+        byteBuffer.put(buffer, 0, length - firstPart);
+
+        consume(readPosition + length);
+    }
+
+    /**
+     * Discards up to the requested number of bytes.
+     * 
+     * @param length
+     * @return number of bytes discarded
+     */
+    public int skip(int length) {
+        long readPosition = this.readPosition;
+        int count = Math.min(length, (int) (writePosition - readPosition));
+
+        if (count <= 0) {
+            return 0;
+        }
+
+        consume(readPosition + count);
+
+        return count;
+    }
+
+    /**
+     * Discards every unread byte. Only the read position moves, so this is a
+     * constant time operation regardless of how much is buffered.
+     * 
+     * @return number of bytes discarded
+     */
+    public int clear() {
+        long writePosition = this.writePosition;
+        int count = (int) (writePosition - readPosition);
+
+        consume(writePosition);
+
+        return count;
+    }
+
+    private void consume(long readPosition) {
+        this.readPosition = readPosition;
+
+        wakeWriter();
+    }
+}
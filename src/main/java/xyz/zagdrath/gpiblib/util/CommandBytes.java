@@ -0,0 +1,215 @@
+/*
+ * @(#)CommandBytes.java
+ * 
+ * Copyright (c) 2022 Cody L. Wellman. All rights reserved. This work is
+ * licensed under the terms of the MIT license which can be found in the
+ * root directory of this project.
+ * 
+ * Author: Cody L. Wellman <zecoderex@gmail.com>
+ * 
+ * Created: October 17, 2026
+ * Updated: October 17, 2026
+ */
+
+package xyz.zagdrath.gpiblib.util;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+
+/**
+ * Holds the pre-encoded bytes of a command. Arguments are formatted as ASCII
+ * digits directly into the outgoing buffer, so no String is ever built on the
+ * write path.
+ */
+public final class CommandBytes implements EncodedCommand {
+    private final String command;
+    private final byte[] terminated;
+    private final byte[] prefix;
+    private final byte[] separator;
+
+    private final static byte lfByte = (byte) 10;
+    private final static byte crByte = (byte) 13;
+    private final static byte escByte = (byte) 27;
+    private final static byte plusByte = (byte) 43;
+
+    private final static byte commandTerminator = lfByte;
+
+    private final static long[] powersOfTen = {
+            1L, 10L, 100L, 1000L, 10000L, 100000L, 1000000L, 10000000L, 100000000L
+    };
+
+    /**
+     * Encodes a command.
+     * 
+     * @param command
+     * @param separator placed between the command and an argument
+     * @param cooked true to escape the bytes the Prologix treats as special
+     * @throws IllegalArgumentException
+     */
+    public CommandBytes(String command, String separator, boolean cooked)
+            throws IllegalArgumentException {
+        if (command == null || separator == null) {
+            throw new IllegalArgumentException("ERROR: Invalid Command");
+        }
+
+        byte[] commandBytes = (command + separator).getBytes(Charset.forName("US-ASCII"));
+
+        if (cooked) {
+            commandBytes = escape(commandBytes);
+        }
+
+        this.command = command;
+        this.separator = separator.getBytes(Charset.forName("US-ASCII"));
+        this.prefix = commandBytes;
+        this.terminated = new byte[commandBytes.length - separator.length() + 1];
+
+        System.arraycopy(commandBytes, 0, terminated, 0, terminated.length - 1);
+
+        terminated[terminated.length - 1] = commandTerminator;
+    }
+
+    @Override
+    public String getCommand() {
+        return command;
+    }
+
+    @Override
+    public void writeTo(ByteBuffer byteBuffer) {
+        byteBuffer.put(terminated);
+    }
+
+    @Override
+    public void writeTo(ByteBuffer byteBuffer, int value) {
+        byteBuffer.put(prefix);
+
+        putInt(byteBuffer, value);
+
+        byteBuffer.put(commandTerminator);
+    }
+
+    @Override
+    public void writeTo(ByteBuffer byteBuffer, int value, int secondValue) {
+        byteBuffer.put(prefix);
+
+        putInt(byteBuffer, value);
+
+        byteBuffer.put(separator);
+
+        putInt(byteBuffer, secondValue);
+
+        byteBuffer.put(commandTerminator);
+    }
+
+    @Override
+    public void writeTo(ByteBuffer byteBuffer, double value, int fractionDigits) {
+        byteBuffer.put(prefix);
+
+        putDecimal(byteBuffer, value, fractionDigits);
+
+        byteBuffer.put(commandTerminator);
+    }
+
+    @Override
+    public String toString() {
+        return command;
+    }
+
+    /**
+     * Writes an integer as ASCII digits.
+     * 
+     * @param byteBuffer
+     * @param value
+     */
+    public static void putInt(ByteBuffer byteBuffer, int value) {
+        long magnitude = value;
+
+        if (magnitude < 0) {
+            byteBuffer.put((byte) '-');
+
+            magnitude = -magnitude;
+        }
+
+        putDigits(byteBuffer, magnitude, 1);
+    }
+
+    /**
+     * Writes a value in fixed point notation as ASCII digits, rounded to the
+     * given number of fraction digits.
+     * 
+     * @param byteBuffer
+     * @param value
+     * @param fractionDigits between 0 and 8
+     * @throws IllegalArgumentException
+     */
+    public static void putDecimal(ByteBuffer byteBuffer, double value, int fractionDigits)
+            throws IllegalArgumentException {
+        if (fractionDigits < 0 || fractionDigits >= powersOfTen.length
+                || Double.isNaN(value) || Double.isInfinite(value)
+                || Math.abs(value) >= 1e9) {
+            throw new IllegalArgumentException("ERROR: Invalid Value");
+        }
+
+        long scaled = Math.round(Math.abs(value) * powersOfTen[fractionDigits]);
+
+        if (value < 0 && scaled != 0) {
+            byteBuffer.put((byte) '-');
+        }
+
+        putDigits(byteBuffer, scaled / powersOfTen[fractionDigits], 1);
+
+        if (fractionDigits > 0) {
+            byteBuffer.put((byte) '.');
+
+            putDigits(byteBuffer, scaled % powersOfTen[fractionDigits], fractionDigits);
+        }
+    }
+
+    private static void putDigits(ByteBuffer byteBuffer, long value, int minimumDigits) {
+        int digits = 1;
+
+        for (long remaining = value / 10; remaining > 0; remaining /= 10) {
+            digits++;
+        }
+
+        for (int i = digits; i < minimumDigits; i++) {
+            byteBuffer.put((byte) '0');
+        }
+
+        int end = byteBuffer.position() + digits;
+
+        for (int i = end - 1; i >= end - digits; i--) {
+            byteBuffer.put(i, (byte) ('0' + (value % 10)));
+
+            value /= 10;
+        }
+
+        byteBuffer.position(end);
+    }
+
+    private static byte[] escape(byte[] bytes) {
+        int escapes = 0;
+
+        for (byte b : bytes) {
+            if (b == lfByte || b == crByte || b == escByte || b == plusByte) {
+                escapes++;
+            }
+        }
+
+        if (escapes == 0) {
+            return bytes;
+        }
+
+        byte[] escaped = new byte[bytes.length + escapes];
+        int i = 0;
+
+        for (byte b : bytes) {
+            if (b == lfByte || b == crByte || b == escByte || b == plusByte) {
+                escaped[i++] = escByte;
+            }
+
+            escaped[i++] = b;
+        }
+
+        return escaped;
+    }
+}
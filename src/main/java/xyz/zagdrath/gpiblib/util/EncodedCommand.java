@@ -0,0 +1,65 @@
+/*
+ * @(#)EncodedCommand.java
+ * 
+ * Copyright (c) 2022 Cody L. Wellman. All rights reserved. This work is
+ * licensed under the terms of the MIT license which can be found in the
+ * root directory of this project.
+ * 
+ * Author: Cody L. Wellman <zecoderex@gmail.com>
+ * 
+ * Created: October 17, 2026
+ * Updated: October 17, 2026
+ */
+
+package xyz.zagdrath.gpiblib.util;
+
+import java.nio.ByteBuffer;
+
+/**
+ * A command whose bytes, terminator included, are encoded once up front so
+ * that writing it is a bulk copy into the outgoing buffer.
+ */
+public interface EncodedCommand {
+    /**
+     * Get's the command text.
+     * 
+     * @return command
+     */
+    String getCommand();
+
+    /**
+     * Copies the encoded command and its terminator into the buffer.
+     * 
+     * @param byteBuffer
+     */
+    void writeTo(ByteBuffer byteBuffer);
+
+    /**
+     * Copies the encoded command with an integer argument and its terminator
+     * into the buffer.
+     * 
+     * @param byteBuffer
+     * @param value
+     */
+    void writeTo(ByteBuffer byteBuffer, int value);
+
+    /**
+     * Copies the encoded command with two integer arguments and its terminator
+     * into the buffer.
+     * 
+     * @param byteBuffer
+     * @param value
+     * @param secondValue
+     */
+    void writeTo(ByteBuffer byteBuffer, int value, int secondValue);
+
+    /**
+     * Copies the encoded command with a fixed point argument and its
+     * terminator into the buffer.
+     * 
+     * @param byteBuffer
+     * @param value
+     * @param fractionDigits
+     */
+    void writeTo(ByteBuffer byteBuffer, double value, int fractionDigits);
+}
@@ -0,0 +1,185 @@
+/*
+ * @(#)LatencyHistogram.java
+ * 
+ * Copyright (c) 2022 Cody L. Wellman. All rights reserved. This work is
+ * licensed under the terms of the MIT license which can be found in the
+ * root directory of this project.
+ * 
+ * Author: Cody L. Wellman <zecoderex@gmail.com>
+ * 
+ * Created: October 17, 2026
+ * Updated: October 17, 2026
+ */
+
+package xyz.zagdrath.gpiblib.util;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Lock-free histogram of latencies in nanoseconds with power of two buckets.
+ * 
+ * Bucket 0 counts zero, bucket n counts latencies from 2^(n-1) up to 2^n - 1.
+ * Recording is a handful of atomic adds and never allocates, so it is safe to
+ * call from any number of threads on the hot path.
+ */
+public class LatencyHistogram {
+    private final static int bucketCount = 64;
+
+    private final AtomicLongArray buckets = new AtomicLongArray(bucketCount);
+    private final AtomicLong count = new AtomicLong();
+    private final AtomicLong totalNanos = new AtomicLong();
+    private final AtomicLong maxNanos = new AtomicLong();
+
+    /**
+     * Records one latency.
+     * 
+     * @param nanos
+     */
+    public void record(long nanos) {
+        if (nanos < 0) {
+            nanos = 0;
+        }
+
+        buckets.incrementAndGet(Math.min(bucketCount - 1, 64 - Long.numberOfLeadingZeros(nanos)));
+        count.incrementAndGet();
+        totalNanos.addAndGet(nanos);
+
+        long max = maxNanos.get();
+
+        while (nanos > max && !maxNanos.compareAndSet(max, nanos)) {
+            max = maxNanos.get();
+        }
+    }
+
+    /**
+     * Get's the number of latencies recorded.
+     * 
+     * @return count
+     */
+    public long getCount() {
+        return count.get();
+    }
+
+    /**
+     * Copies the histogram. Buckets are read one at a time while recording may
+     * continue, so the copy is consistent to within the records made during
+     * the copy.
+     * 
+     * @return snapshot
+     */
+    public Snapshot snapshot() {
+        long[] bucketCounts = new long[bucketCount];
+
+        for (int i = 0; i < bucketCount; i++) {
+            bucketCounts[i] = buckets.get(i);
+        }
+
+        return new Snapshot(bucketCounts, count.get(), totalNanos.get(), maxNanos.get());
+    }
+
+    /**
+     * Discards every recorded latency.
+     */
+    public void reset() {
+        for (int i = 0; i < bucketCount; i++) {
+            buckets.set(i, 0);
+        }
+
+        count.set(0);
+        totalNanos.set(0);
+        maxNanos.set(0);
+    }
+
+    /**
+     * Immutable copy of a histogram.
+     */
+    public static class Snapshot {
+        private final long[] buckets;
+        private final long count;
+        private final long totalNanos;
+        private final long maxNanos;
+
+        private Snapshot(long[] buckets, long count, long totalNanos, long maxNanos) {
+            this.buckets = buckets;
+            this.count = count;
+            this.totalNanos = totalNanos;
+            this.maxNanos = maxNanos;
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        public long getTotalNanos() {
+            return totalNanos;
+        }
+
+        public long getMaxNanos() {
+            return maxNanos;
+        }
+
+        /**
+         * Get's the mean latency.
+         * 
+         * @return meanNanos, zero when empty
+         */
+        public double getMeanNanos() {
+            return count == 0 ? 0.0 : (double) totalNanos / count;
+        }
+
+        /**
+         * Get's the count of a bucket.
+         * 
+         * @param bucket
+         * @return count
+         */
+        public long getBucketCount(int bucket) {
+            return buckets[bucket];
+        }
+
+        /**
+         * Get's an upper bound on the latency at a percentile, the top of the
+         * bucket holding it, capped at the largest latency recorded.
+         * 
+         * @param percentile from 0 to 100
+         * @return nanos, zero when empty
+         */
+        public long getPercentileNanos(double percentile) {
+            long total = 0;
+
+            for (long bucket : buckets) {
+                total += bucket;
+            }
+
+            if (total == 0) {
+                return 0;
+            }
+
+            long rank = (long) Math.ceil(total * Math.min(100.0, Math.max(0.0, percentile)) / 100.0);
+            long seen = 0;
+
+            for (int i = 0; i < buckets.length; i++) {
+                seen += buckets[i];
+
+                if (seen >= Math.max(1, rank)) {
+                    long upperNanos = i == 0 ? 0 : i >= 63 ? Long.MAX_VALUE : (1L << i) - 1;
+
+                    return Math.min(upperNanos, maxNanos);
+                }
+            }
+
+            return maxNanos;
+        }
+
+        @Override
+        public String toString() {
+            return "count=" + count
+                    + " mean_ns=" + Math.round(getMeanNanos())
+                    + " p50_ns=" + getPercentileNanos(50.0)
+                    + " p99_ns=" + getPercentileNanos(99.0)
+                    + " p999_ns=" + getPercentileNanos(99.9)
+                    + " max_ns=" + maxNanos;
+        }
+    }
+}
@@ -0,0 +1,165 @@
+/*
+ * @(#)ReadlineFramer.java
+ * 
+ * Copyright (c) 2022 Cody L. Wellman. All rights reserved. This work is
+ * licensed under the terms of the MIT license which can be found in the
+ * root directory of this project.
+ * 
+ * Author: Cody L. Wellman <zecoderex@gmail.com>
+ * 
+ * Created: October 17, 2026
+ * Updated: October 17, 2026
+ */
+
+package xyz.zagdrath.gpiblib.util;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Frames lines out of a ByteRingBuffer for every ReadlineTerminationMode.
+ * 
+ * Buffered bytes are scanned in bulk for the terminator, the line is copied
+ * straight into the caller's ByteBuffer and the terminator is consumed. The
+ * framer itself only reads the clock when there is not yet a full line
+ * buffered and it has to wait. The deadline is an absolute time computed by
+ * the caller, so a caller that reads the clock anyway, as PrologixAdapter does
+ * for its read latency metrics, can derive it from that same read. Nothing
+ * allocates.
+ */
+public final class ReadlineFramer {
+    private final static byte lfByte = (byte) 10;
+    private final static byte crByte = (byte) 13;
+
+    private ReadlineFramer() {
+
+    }
+
+    /**
+     * Reads one line into the byte buffer, without its terminator.
+     * 
+     * @param byteRingBuffer
+     * @param readlineTerminationMode
+     * @param line
+     * @param deadlineNanos deadline on the System.nanoTime() clock
+     * @return length of the line
+     * @throws IOException if the terminator is malformed or the line does not fit
+     * @throws InterruptedException
+     * @throws TimeoutException
+     */
+    public static int readLine(ByteRingBuffer byteRingBuffer,
+            ReadlineTerminationMode readlineTerminationMode, ByteBuffer line, long deadlineNanos)
+            throws IOException, InterruptedException, TimeoutException {
+        byte terminator;
+
+        switch (readlineTerminationMode) {
+            case CR:
+            case CR_LF: {
+                terminator = crByte;
+
+                break;
+            }
+
+            case LF:
+            case OPTCR_LF:
+            case LF_CR: {
+                terminator = lfByte;
+
+                break;
+            }
+
+            default: {
+                throw new RuntimeException();
+            }
+        }
+
+        int scanned = 0;
+
+        for (;;) {
+            int available = byteRingBuffer.available();
+            int index = byteRingBuffer.indexOf(terminator, scanned, available);
+
+            if (index >= 0) {
+                switch (readlineTerminationMode) {
+                    case CR:
+                    case LF: {
+                        return take(byteRingBuffer, line, index, index + 1);
+                    }
+
+                    case OPTCR_LF: {
+                        int lineLength = index;
+
+                        if (lineLength > 0 && byteRingBuffer.peek(lineLength - 1) == crByte) {
+                            lineLength--;
+                        }
+
+                        int strayIndex = byteRingBuffer.indexOf(crByte, 0, lineLength);
+
+                        if (strayIndex >= 0) {
+                            byteRingBuffer.skip(strayIndex + 2);
+
+                            throw new IOException("ERROR: Invalid Line Termination");
+                        }
+
+                        return take(byteRingBuffer, line, lineLength, index + 1);
+                    }
+
+                    case CR_LF:
+                    case LF_CR: {
+                        if (index + 1 < available) {
+                            byte pairByte = readlineTerminationMode == ReadlineTerminationMode.CR_LF
+                                    ? lfByte
+                                    : crByte;
+
+                            if (byteRingBuffer.peek(index + 1) != pairByte) {
+                                byteRingBuffer.skip(index + 2);
+
+                                throw new IOException("ERROR: Invalid Line Termination");
+                            }
+
+                            return take(byteRingBuffer, line, index, index + 2);
+                        }
+
+                        // Terminator pair is split, wait for its second byte
+                        break;
+                    }
+
+                    default: {
+                        throw new RuntimeException();
+                    }
+                }
+
+                scanned = index;
+            } else {
+                scanned = available;
+            }
+
+            int needed = scanned + 1 + (index >= 0 ? 1 : 0);
+
+            if (needed > byteRingBuffer.capacity()) {
+                byteRingBuffer.clear();
+
+                throw new IOException("ERROR: Line Exceeds Read Buffer");
+            }
+
+            if (!byteRingBuffer.await(needed, deadlineNanos)) {
+                throw new TimeoutException();
+            }
+        }
+    }
+
+    private static int take(ByteRingBuffer byteRingBuffer, ByteBuffer line, int lineLength,
+            int consumedLength) throws IOException {
+        if (lineLength > line.remaining()) {
+            byteRingBuffer.skip(consumedLength);
+
+            throw new IOException("ERROR: Line Exceeds Buffer");
+        }
+
+        byteRingBuffer.drain(line, lineLength);
+        byteRingBuffer.skip(consumedLength - lineLength);
+
+        return lineLength;
+    }
+}
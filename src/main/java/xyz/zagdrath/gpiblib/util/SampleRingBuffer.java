@@ -0,0 +1,138 @@
+/*
+ * @(#)SampleRingBuffer.java
+ * 
+ * Copyright (c) 2022 Cody L. Wellman. All rights reserved. This work is
+ * licensed under the terms of the MIT license which can be found in the
+ * root directory of this project.
+ * 
+ * Author: Cody L. Wellman <zecoderex@gmail.com>
+ * 
+ * Created: October 17, 2026
+ * Updated: October 17, 2026
+ */
+
+package xyz.zagdrath.gpiblib.util;
+
+/**
+ * Bounded single-producer/single-consumer ring of timestamped readings kept in
+ * parallel primitive arrays.
+ * 
+ * The producer never blocks, a reading offered to a full ring is refused and
+ * left for the caller to count as dropped.
+ */
+public class SampleRingBuffer {
+    private final double[] values;
+    private final long[] timestamps;
+    private final int mask;
+
+    private volatile long readPosition;
+    private volatile long writePosition;
+
+    /**
+     * Constructs a ring holding at least the requested number of readings.
+     * 
+     * @param capacity
+     * @throws IllegalArgumentException
+     */
+    public SampleRingBuffer(int capacity) throws IllegalArgumentException {
+        if (capacity <= 0 || capacity > (1 << 28)) {
+            throw new IllegalArgumentException("ERROR: Invalid Capacity");
+        }
+
+        int size = Integer.highestOneBit(capacity);
+
+        if (size < capacity) {
+            size <<= 1;
+        }
+
+        this.values = new double[size];
+        this.timestamps = new long[size];
+        this.mask = size - 1;
+    }
+
+    /**
+     * Get's the capacity.
+     * 
+     * @return capacity
+     */
+    public int capacity() {
+        return values.length;
+    }
+
+    /**
+     * Get's the number of readings waiting to be drained.
+     * 
+     * @return available
+     */
+    public int available() {
+        return (int) (writePosition - readPosition);
+    }
+
+    /**
+     * Adds a reading if there is room.
+     * 
+     * @param value
+     * @param timestampNanos
+     * @return false if the ring was full and the reading was dropped
+     */
+    public boolean offer(double value, long timestampNanos) {
+        long writePosition = this.writePosition;
+
+        if (writePosition - readPosition >= values.length) {
+            return false;
+        }
+
+        int index = (int) writePosition & mask;
+
+        values[index] = value;
+        timestamps[index] = timestampNanos;
+
+        this.writePosition = writePosition + 1;
+
+        return true;
+    }
+
+    /**
+     * Moves up to the requested number of readings into the arrays.
+     * 
+     * @param values
+     * @param timestamps
+     * @param offset
+     * @param length
+     * @return number of readings moved
+     */
+    public int drain(double[] values, long[] timestamps, int offset, int length) {
+        long readPosition = this.readPosition;
+        int count = Math.min(length, (int) (writePosition - readPosition));
+
+        if (count <= 0) {
+            return 0;
+        }
+
+        int index = (int) readPosition & mask;
+        int firstPart = Math.min(count, this.values.length - index);
+
+        System.arraycopy(this.values, index, values, offset, firstPart);
+        System.arraycopy(this.values, 0, values, offset + firstPart, count - firstPart);
+        System.arraycopy(this.timestamps, index, timestamps, offset, firstPart);
+        System.arraycopy(this.timestamps, 0, timestamps, offset + firstPart, count - firstPart);
+
+        this.readPosition = readPosition + count;
+
+        return count;
+    }
+
+    /**
+     * Discards every reading waiting to be drained.
+     * 
+     * @return number of readings discarded
+     */
+    public int clear() {
+        long writePosition = this.writePosition;
+        int count = (int) (writePosition - readPosition);
+
+        this.readPosition = writePosition;
+
+        return count;
+    }
+}
@@ -0,0 +1,534 @@
+/*
+ * @(#)PrologixSimulator.java
+ * 
+ * Copyright (c) 2022 Cody L. Wellman. All rights reserved. This work is
+ * licensed under the terms of the MIT license which can be found in the
+ * root directory of this project.
+ * 
+ * Author: Cody L. Wellman <zecoderex@gmail.com>
+ * 
+ * Created: October 17, 2026
+ * Updated: October 17, 2026
+ */
+
+package xyz.zagdrath.gpiblib.simulator;
+
+import java.net.Socket;
+import java.io.Closeable;
+import java.io.InputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.ServerSocket;
+import java.net.SocketException;
+import java.net.InetSocketAddress;
+import java.nio.charset.Charset;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Simulated Prologix GPIB-ETHERNET controller.
+ * 
+ * Listens on a local TCP port and speaks the ++ command set the way the real
+ * adapter does: lines end at an unescaped CR or LF, ESC makes the next byte
+ * literal, and a line beginning with an unescaped ++ is a controller command
+ * while anything else is sent to the addressed instrument. All connections
+ * share one simulated bus, so commands from different connections are
+ * serialized just as they would be on hardware.
+ */
+public class PrologixSimulator implements Closeable {
+    private final SimulatedInstrument[] instruments = new SimulatedInstrument[31];
+    private final CopyOnWriteArrayList<Socket> connections = new CopyOnWriteArrayList<>();
+
+    private ServerSocket serverSocket;
+    private Thread acceptThread;
+    private volatile boolean running;
+
+    private int addressPrimary;
+    private int addressSecondary;
+    private int auto;
+    private int eoi;
+    private int eos;
+    private int eotEnable;
+    private int eotChar;
+    private int mode;
+    private int readTimeoutMs;
+    private int listenOnly;
+    private int saveConfig;
+    private int status;
+
+    private final static int defaultPort = 1234;
+
+    private final static byte lfByte = (byte) 10;
+    private final static byte crByte = (byte) 13;
+    private final static byte escByte = (byte) 27;
+
+    private final static Charset ascii = Charset.forName("US-ASCII");
+
+    private final static String version = "Prologix GPIB-ETHERNET Simulator version 1.0";
+
+    /**
+     * Constructs a simulator with an empty bus and default adapter settings.
+     */
+    public PrologixSimulator() {
+        resetSettings();
+    }
+
+    /**
+     * Attaches an instrument at a primary address, replacing any instrument
+     * already there.
+     * 
+     * @param busAddressPrimary
+     * @param instrument
+     * @throws IllegalArgumentException
+     */
+    public synchronized void attach(int busAddressPrimary, SimulatedInstrument instrument)
+            throws IllegalArgumentException {
+        if (busAddressPrimary < 0 || busAddressPrimary > 30) {
+            throw new IllegalArgumentException("ERROR: Invalid Primary Bus Address");
+        }
+
+        instruments[busAddressPrimary] = instrument;
+    }
+
+    /**
+     * Starts listening.
+     * 
+     * @param inetSocketAddress local address, port 0 for any free port
+     * @throws IOException
+     */
+    public void start(InetSocketAddress inetSocketAddress) throws IOException {
+        serverSocket = new ServerSocket();
+        serverSocket.setReuseAddress(true);
+        serverSocket.bind(inetSocketAddress);
+
+        running = true;
+
+        acceptThread = new Thread(this::acceptLoop, "Prologix Simulator");
+        acceptThread.setDaemon(true);
+        acceptThread.start();
+    }
+
+    /**
+     * Get's the port the simulator is listening on.
+     * 
+     * @return port
+     */
+    public int getPort() {
+        return serverSocket.getLocalPort();
+    }
+
+    @Override
+    public void close() throws IOException {
+        running = false;
+
+        if (serverSocket != null) {
+            serverSocket.close();
+        }
+
+        for (Socket socket : connections) {
+            socket.close();
+        }
+    }
+
+    private void acceptLoop() {
+        try {
+            while (running) {
+                Socket socket = serverSocket.accept();
+
+                socket.setTcpNoDelay(true);
+                connections.add(socket);
+
+                Thread connectionThread = new Thread(() -> serve(socket),
+                        "Prologix Simulator " + socket.getRemoteSocketAddress());
+                connectionThread.setDaemon(true);
+                connectionThread.start();
+            }
+        } catch (IOException e) {
+            if (running) {
+                e.printStackTrace();
+            }
+        }
+    }
+
+    // Connection
+
+    private void serve(Socket socket) {
+        ByteArrayOutputStream line = new ByteArrayOutputStream();
+        boolean escaped = false;
+        boolean prefixEscaped = false;
+
+        try (InputStream inputStream = new BufferedInputStream(socket.getInputStream());
+                OutputStream outputStream = new BufferedOutputStream(socket.getOutputStream())) {
+            for (;;) {
+                int b = inputStream.read();
+
+                if (b < 0) {
+                    break;
+                }
+
+                if (escaped) {
+                    escaped = false;
+                    prefixEscaped |= line.size() < 2;
+
+                    line.write(b);
+                } else if (b == escByte) {
+                    escaped = true;
+                } else if (b == lfByte || b == crByte) {
+                    if (line.size() > 0) {
+                        handle(line.toByteArray(), prefixEscaped, outputStream);
+                    }
+
+                    line.reset();
+                    prefixEscaped = false;
+                } else {
+                    line.write(b);
+                }
+
+                if (inputStream.available() == 0) {
+                    outputStream.flush();
+                }
+            }
+        } catch (SocketException e) {
+            // Connection closed by either side
+        } catch (IOException e) {
+            e.printStackTrace();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            connections.remove(socket);
+        }
+    }
+
+    private synchronized void handle(byte[] line, boolean prefixEscaped, OutputStream outputStream)
+            throws IOException, InterruptedException {
+        boolean command = !prefixEscaped && line.length >= 2 && line[0] == '+' && line[1] == '+';
+
+        if (!command) {
+            SimulatedInstrument instrument = instruments[addressPrimary];
+
+            if (instrument != null) {
+                instrument.write(new String(line, ascii));
+
+                if (auto == 1) {
+                    respond(instrument, outputStream);
+                }
+            }
+
+            return;
+        }
+
+        String[] words = new String(line, 2, line.length - 2, ascii).trim().split("\\s+");
+        String name = words[0].toLowerCase();
+
+        switch (name) {
+            case "addr": {
+                if (words.length == 1) {
+                    reply(outputStream, addressSecondary != 0
+                            ? addressPrimary + " " + addressSecondary
+                            : Integer.toString(addressPrimary));
+                } else {
+                    int primary = parseInt(words[1], -1);
+                    int secondary = words.length > 2 ? parseInt(words[2], -1) : 0;
+
+                    if (primary >= 0 && primary <= 30
+                            && (secondary == 0 || (secondary >= 96 && secondary <= 126))) {
+                        addressPrimary = primary;
+                        addressSecondary = secondary;
+                    }
+                }
+
+                break;
+            }
+
+            case "auto": {
+                auto = setting(words, auto, outputStream);
+
+                break;
+            }
+
+            case "eoi": {
+                eoi = setting(words, eoi, outputStream);
+
+                break;
+            }
+
+            case "eos": {
+                eos = setting(words, eos, outputStream);
+
+                break;
+            }
+
+            case "eot_enable": {
+                eotEnable = setting(words, eotEnable, outputStream);
+
+                break;
+            }
+
+            case "eot_char": {
+                eotChar = setting(words, eotChar, outputStream);
+
+                break;
+            }
+
+            case "mode": {
+                mode = setting(words, mode, outputStream);
+
+                break;
+            }
+
+            case "read_tmo_ms": {
+                readTimeoutMs = setting(words, readTimeoutMs, outputStream);
+
+                break;
+            }
+
+            case "lon": {
+                listenOnly = setting(words, listenOnly, outputStream);
+
+                break;
+            }
+
+            case "savecfg": {
+                saveConfig = setting(words, saveConfig, outputStream);
+
+                break;
+            }
+
+            case "status": {
+                status = setting(words, status, outputStream);
+
+                break;
+            }
+
+            case "clr": {
+                SimulatedInstrument instrument = instruments[addressPrimary];
+
+                if (instrument != null) {
+                    instrument.clear();
+                }
+
+                break;
+            }
+
+            case "trg": {
+                if (words.length == 1) {
+                    trigger(addressPrimary);
+                } else {
+                    for (int i = 1; i < words.length; i++) {
+                        int primary = parseInt(words[i], -1);
+
+                        // Secondary addresses follow their primary and are ignored
+                        if (primary >= 0 && primary <= 30) {
+                            trigger(primary);
+                        }
+                    }
+                }
+
+                break;
+            }
+
+            case "read": {
+                SimulatedInstrument instrument = instruments[addressPrimary];
+
+                if (instrument != null) {
+                    respond(instrument, outputStream);
+                } else {
+                    TimeUnit.MILLISECONDS.sleep(readTimeoutMs);
+                }
+
+                break;
+            }
+
+            case "spoll": {
+                int primary = words.length > 1 ? parseInt(words[1], -1) : addressPrimary;
+                SimulatedInstrument instrument = primary >= 0 && primary <= 30
+                        ? instruments[primary]
+                        : null;
+
+                reply(outputStream, Integer.toString(instrument != null ? instrument.serialPoll() : 0));
+
+                break;
+            }
+
+            case "srq": {
+                boolean requestingService = false;
+
+                for (SimulatedInstrument instrument : instruments) {
+                    requestingService |= instrument != null && instrument.isRequestingService();
+                }
+
+                reply(outputStream, requestingService ? "1" : "0");
+
+                break;
+            }
+
+            case "rst": {
+                resetSettings();
+
+                break;
+            }
+
+            case "ver": {
+                reply(outputStream, version);
+
+                break;
+            }
+
+            case "help": {
+                reply(outputStream, "++addr ++auto ++clr ++eoi ++eos ++eot_enable ++eot_char ++ifc ++llo"
+                        + " ++loc ++lon ++mode ++read ++read_tmo_ms ++rst ++savecfg ++spoll ++srq"
+                        + " ++status ++trg ++ver ++help");
+
+                break;
+            }
+
+            case "ifc":
+            case "llo":
+            case "loc": {
+                break;
+            }
+
+            default: {
+                reply(outputStream, "Unrecognized command");
+
+                break;
+            }
+        }
+    }
+
+    private void respond(SimulatedInstrument instrument, OutputStream outputStream)
+            throws IOException, InterruptedException {
+        outputStream.write(instrument.read());
+
+        if (eotEnable == 1) {
+            outputStream.write(eotChar);
+        }
+
+        outputStream.flush();
+    }
+
+    private void trigger(int busAddressPrimary) {
+        SimulatedInstrument instrument = instruments[busAddressPrimary];
+
+        if (instrument != null) {
+            instrument.trigger();
+        }
+    }
+
+    private int setting(String[] words, int value, OutputStream outputStream) throws IOException {
+        if (words.length == 1) {
+            reply(outputStream, Integer.toString(value));
+
+            return value;
+        }
+
+        return parseInt(words[1], value);
+    }
+
+    private static void reply(OutputStream outputStream, String string) throws IOException {
+        outputStream.write(string.getBytes(ascii));
+        outputStream.write(crByte);
+        outputStream.write(lfByte);
+        outputStream.flush();
+    }
+
+    private void resetSettings() {
+        addressPrimary = 0;
+        addressSecondary = 0;
+        auto = 0;
+        eoi = 1;
+        eos = 0;
+        eotEnable = 0;
+        eotChar = 0;
+        mode = 1;
+        readTimeoutMs = 500;
+        listenOnly = 0;
+        saveConfig = 1;
+        status = 0;
+    }
+
+    private static int parseInt(String string, int defaultValue) {
+        try {
+            return Integer.parseInt(string);
+        } catch (NumberFormatException e) {
+            return defaultValue;
+        }
+    }
+
+    // Main
+
+    /**
+     * Runs a simulator with one HP 5334 until killed.
+     * 
+     * Options are --port, --address, --latency-us, --jitter-us, --rate and
+     * --high-speed-rate.
+     * 
+     * @param args
+     * @throws IOException
+     * @throws InterruptedException
+     */
+    public static void main(String[] args) throws IOException, InterruptedException {
+        int port = defaultPort;
+        int address = 3;
+        SimulatedHP5334 counter = new SimulatedHP5334();
+
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            String value = args[i + 1];
+
+            switch (args[i]) {
+                case "--port": {
+                    port = Integer.parseInt(value);
+
+                    break;
+                }
+
+                case "--address": {
+                    address = Integer.parseInt(value);
+
+                    break;
+                }
+
+                case "--latency-us": {
+                    counter.setLatencyNanos(TimeUnit.MICROSECONDS.toNanos(Long.parseLong(value)));
+
+                    break;
+                }
+
+                case "--jitter-us": {
+                    counter.setJitterNanos(TimeUnit.MICROSECONDS.toNanos(Long.parseLong(value)));
+
+                    break;
+                }
+
+                case "--rate": {
+                    counter.setRate(Double.parseDouble(value));
+
+                    break;
+                }
+
+                case "--high-speed-rate": {
+                    counter.setHighSpeedRate(Double.parseDouble(value));
+
+                    break;
+                }
+
+                default: {
+                    throw new IllegalArgumentException("ERROR: Invalid Option " + args[i]);
+                }
+            }
+        }
+
+        PrologixSimulator prologixSimulator = new PrologixSimulator();
+
+        prologixSimulator.attach(address, counter);
+        prologixSimulator.start(new InetSocketAddress("127.0.0.1", port));
+
+        System.out.println("Prologix simulator listening on 127.0.0.1:" + prologixSimulator.getPort()
+                + " with an HP 5334 at GPIB:" + address);
+
+        Thread.currentThread().join();
+    }
+}
@@ -0,0 +1,479 @@
+/*
+ * @(#)SimulatedHP5334.java
+ * 
+ * Copyright (c) 2022 Cody L. Wellman. All rights reserved. This work is
+ * licensed under the terms of the MIT license which can be found in the
+ * root directory of this project.
+ * 
+ * Author: Cody L. Wellman <zecoderex@gmail.com>
+ * 
+ * Created: October 17, 2026
+ * Updated: October 17, 2026
+ */
+
+package xyz.zagdrath.gpiblib.simulator;
+
+import java.util.Random;
+import java.nio.charset.Charset;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Simulated HP 5334 universal counter.
+ * 
+ * Measurement functions FN1 through FN15, high speed mode, the SRQ mask and
+ * the identification and error queries are answered, every other program
+ * code is accepted and ignored. Each reading takes the configured latency
+ * plus a uniformly distributed jitter, and readings are never produced faster
+ * than the configured rate, which is higher in high speed mode.
+ * 
+ * The status byte sets bit 0 while a reading is ready and bit 5 after an
+ * invalid program code, and requests service whenever it shares a bit with
+ * the SRQ mask.
+ */
+public class SimulatedHP5334 implements SimulatedInstrument {
+    private long latencyNanos = TimeUnit.MICROSECONDS.toNanos(500);
+    private long jitterNanos = TimeUnit.MICROSECONDS.toNanos(100);
+    private double rate = 100.0;
+    private double highSpeedRate = 5000.0;
+
+    private double frequencyA = 10.0e6;
+    private double frequencyB = 5.0e6;
+    private double frequencyC = 1.0e9;
+    private double timeInterval = 1.0e-6;
+    private double noise = 1.0e-9;
+
+    private int function = 1;
+    private boolean highSpeed;
+    private int srqMask;
+    private boolean error;
+    private boolean serviced;
+    private long totalize;
+    private long nextReadingNanos;
+
+    private final Random random = new Random(5334);
+    private final byte[] number = new byte[32];
+
+    private final static int dataReadyBit = 0x01;
+    private final static int errorBit = 0x20;
+    private final static int rqsBit = 0x40;
+
+    private final static int spinNanos = 50_000;
+
+    private final static Charset ascii = Charset.forName("US-ASCII");
+
+    private final static byte[] identification = "HP5334A\r\n".getBytes(ascii);
+    private final static byte[] calibrationData = "CAL 0000000000000000\r\n".getBytes(ascii);
+    private final static byte[] noError = "0\r\n".getBytes(ascii);
+    private final static byte[] invalidError = "1\r\n".getBytes(ascii);
+
+    private byte[] pendingResponse;
+
+    // Configuration
+
+    public long getLatencyNanos() {
+        return latencyNanos;
+    }
+
+    public void setLatencyNanos(long latencyNanos) {
+        this.latencyNanos = Math.max(0, latencyNanos);
+    }
+
+    public long getJitterNanos() {
+        return jitterNanos;
+    }
+
+    public void setJitterNanos(long jitterNanos) {
+        this.jitterNanos = Math.max(0, jitterNanos);
+    }
+
+    public double getRate() {
+        return rate;
+    }
+
+    /**
+     * Set's the readings per second in normal mode, zero for unlimited.
+     * 
+     * @param rate
+     */
+    public void setRate(double rate) {
+        this.rate = Math.max(0.0, rate);
+    }
+
+    public double getHighSpeedRate() {
+        return highSpeedRate;
+    }
+
+    /**
+     * Set's the readings per second in high speed mode, zero for unlimited.
+     * 
+     * @param highSpeedRate
+     */
+    public void setHighSpeedRate(double highSpeedRate) {
+        this.highSpeedRate = Math.max(0.0, highSpeedRate);
+    }
+
+    public void setFrequencyA(double frequencyA) {
+        this.frequencyA = frequencyA;
+    }
+
+    public void setFrequencyB(double frequencyB) {
+        this.frequencyB = frequencyB;
+    }
+
+    public void setFrequencyC(double frequencyC) {
+        this.frequencyC = frequencyC;
+    }
+
+    public void setTimeInterval(double timeInterval) {
+        this.timeInterval = timeInterval;
+    }
+
+    /**
+     * Set's the relative standard deviation added to every reading.
+     * 
+     * @param noise
+     */
+    public void setNoise(double noise) {
+        this.noise = Math.max(0.0, noise);
+    }
+
+    public int getFunction() {
+        return function;
+    }
+
+    public boolean isHighSpeed() {
+        return highSpeed;
+    }
+
+    // Bus
+
+    @Override
+    public void write(String message) {
+        int index = 0;
+        int length = message.length();
+
+        while (index < length) {
+            char c = message.charAt(index);
+
+            if (c == ' ' || c == ',' || c == ';' || c == '\r' || c == '\n') {
+                index++;
+
+                continue;
+            }
+
+            if (index + 2 > length || !Character.isLetter(c)
+                    || !Character.isLetter(message.charAt(index + 1))) {
+                error = true;
+
+                return;
+            }
+
+            String code = message.substring(index, index + 2).toUpperCase();
+            int argumentStart = index + 2;
+            int argumentEnd = argumentStart;
+
+            while (argumentEnd < length && isArgument(message.charAt(argumentEnd))) {
+                argumentEnd++;
+            }
+
+            execute(code, message.substring(argumentStart, argumentEnd));
+
+            index = argumentEnd;
+        }
+    }
+
+    private void execute(String code, String argument) {
+        switch (code) {
+            case "FN": {
+                int value = parseInt(argument, -1);
+
+                if (value < 1 || value > 15) {
+                    error = true;
+                } else {
+                    function = value;
+                    totalize = 0;
+                    pendingResponse = null;
+                }
+
+                break;
+            }
+
+            case "HS": {
+                highSpeed = parseInt(argument, 0) == 1;
+
+                break;
+            }
+
+            case "SM": {
+                srqMask = parseInt(argument, 0) & 0xbf;
+                serviced = false;
+
+                break;
+            }
+
+            case "ID": {
+                pendingResponse = identification;
+
+                break;
+            }
+
+            case "TC": {
+                pendingResponse = calibrationData;
+
+                break;
+            }
+
+            case "TE": {
+                pendingResponse = error ? invalidError : noError;
+                error = false;
+
+                break;
+            }
+
+            case "IN":
+            case "RE": {
+                function = 1;
+                highSpeed = false;
+                srqMask = 0;
+                error = false;
+                pendingResponse = null;
+
+                break;
+            }
+
+            default: {
+                break;
+            }
+        }
+    }
+
+    @Override
+    public byte[] read() throws InterruptedException {
+        if (pendingResponse != null) {
+            byte[] response = pendingResponse;
+
+            pendingResponse = null;
+
+            return response;
+        }
+
+        long now = System.nanoTime();
+        long readyNanos = Math.max(now, nextReadingNanos);
+        double currentRate = highSpeed ? highSpeedRate : rate;
+
+        nextReadingNanos = currentRate > 0.0
+                ? readyNanos + (long) (1.0e9 / currentRate)
+                : readyNanos;
+
+        long delayNanos = latencyNanos;
+
+        if (jitterNanos > 0) {
+            delayNanos += (long) (random.nextDouble() * jitterNanos);
+        }
+
+        sleepUntil(readyNanos + delayNanos);
+
+        serviced = false;
+
+        return measure();
+    }
+
+    @Override
+    public int serialPoll() {
+        int statusByte = status();
+
+        if ((statusByte & srqMask) != 0 && !serviced) {
+            statusByte |= rqsBit;
+        }
+
+        serviced = true;
+
+        return statusByte;
+    }
+
+    @Override
+    public boolean isRequestingService() {
+        return !serviced && (status() & srqMask) != 0;
+    }
+
+    @Override
+    public void clear() {
+        pendingResponse = null;
+        serviced = false;
+    }
+
+    @Override
+    public void trigger() {
+        nextReadingNanos = System.nanoTime();
+    }
+
+    private int status() {
+        int statusByte = 0;
+
+        if (pendingResponse != null || System.nanoTime() >= nextReadingNanos) {
+            statusByte |= dataReadyBit;
+        }
+
+        if (error) {
+            statusByte |= errorBit;
+        }
+
+        return statusByte;
+    }
+
+    // Readings
+
+    private byte[] measure() {
+        switch (function) {
+            case 1: {
+                return reading("F", noisy(frequencyA));
+            }
+
+            case 2: {
+                return reading("F", noisy(frequencyB));
+            }
+
+            case 3: {
+                return reading("F", noisy(frequencyC));
+            }
+
+            case 4: {
+                return reading("PER", noisy(1.0 / frequencyA));
+            }
+
+            case 5:
+            case 6: {
+                return reading("TI", noisy(timeInterval));
+            }
+
+            case 7: {
+                return reading("R", noisy(frequencyA / frequencyB));
+            }
+
+            case 8:
+            case 9: {
+                totalize += (long) (frequencyA / Math.max(rate, 1.0));
+
+                return reading("TOT", totalize);
+            }
+
+            case 10: {
+                return reading("PW", noisy(0.5 / frequencyA));
+            }
+
+            case 11: {
+                return reading("RT", noisy(5.0e-9));
+            }
+
+            case 12: {
+                return reading("V", noisy(1.0));
+            }
+
+            case 13: {
+                return "AT+0.000,BT+0.000\r\n".getBytes(ascii);
+            }
+
+            case 14:
+            case 15: {
+                return "+1.000,-1.000\r\n".getBytes(ascii);
+            }
+
+            default: {
+                throw new IllegalStateException();
+            }
+        }
+    }
+
+    private double noisy(double value) {
+        return noise > 0.0 ? value * (1.0 + noise * random.nextGaussian()) : value;
+    }
+
+    /**
+     * Formats a reading as its header and an eleven digit mantissa in
+     * scientific notation, terminated by CR LF.
+     * 
+     * @param header
+     * @param value
+     * @return reading
+     */
+    private byte[] reading(String header, double value) {
+        int length = 0;
+
+        number[length++] = (byte) (value < 0 ? '-' : '+');
+
+        double magnitude = Math.abs(value);
+        int exponent = 0;
+        long digits = 0;
+
+        if (magnitude > 0.0) {
+            exponent = (int) Math.floor(Math.log10(magnitude));
+            digits = Math.round(magnitude / Math.pow(10.0, exponent) * 1.0e10);
+
+            if (digits >= 100_000_000_000L) {
+                digits /= 10;
+                exponent++;
+            }
+        }
+
+        long divisor = 10_000_000_000L;
+
+        number[length++] = (byte) ('0' + digits / divisor);
+        number[length++] = '.';
+
+        for (digits %= divisor, divisor /= 10; divisor > 0; divisor /= 10) {
+            number[length++] = (byte) ('0' + (digits / divisor) % 10);
+        }
+
+        number[length++] = 'E';
+        number[length++] = (byte) (exponent < 0 ? '-' : '+');
+        number[length++] = (byte) ('0' + Math.abs(exponent) / 10);
+        number[length++] = (byte) ('0' + Math.abs(exponent) % 10);
+        number[length++] = '\r';
+        number[length++] = '\n';
+
+        byte[] response = new byte[header.length() + 1 + length];
+
+        for (int i = 0; i < header.length(); i++) {
+            response[i] = (byte) header.charAt(i);
+        }
+
+        response[header.length()] = ' ';
+
+        System.arraycopy(number, 0, response, header.length() + 1, length);
+
+        return response;
+    }
+
+    private static void sleepUntil(long deadlineNanos) throws InterruptedException {
+        for (;;) {
+            long remainingNanos = deadlineNanos - System.nanoTime();
+
+            if (remainingNanos <= 0) {
+                return;
+            }
+
+            if (remainingNanos > spinNanos) {
+                LockSupport.parkNanos(remainingNanos - spinNanos);
+            } else {
+                Thread.onSpinWait();
+            }
+
+            if (Thread.interrupted()) {
+                throw new InterruptedException();
+            }
+        }
+    }
+
+    private static boolean isArgument(char c) {
+        return (c >= '0' && c <= '9') || c == '.' || c == '+' || c == '-';
+    }
+
+    private static int parseInt(String string, int defaultValue) {
+        try {
+            return string.isEmpty() ? defaultValue : Integer.parseInt(string);
+        } catch (NumberFormatException e) {
+            return defaultValue;
+        }
+    }
+}
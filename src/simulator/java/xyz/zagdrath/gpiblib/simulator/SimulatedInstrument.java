@@ -0,0 +1,61 @@
+/*
+ * @(#)SimulatedInstrument.java
+ * 
+ * Copyright (c) 2022 Cody L. Wellman. All rights reserved. This work is
+ * licensed under the terms of the MIT license which can be found in the
+ * root directory of this project.
+ * 
+ * Author: Cody L. Wellman <zecoderex@gmail.com>
+ * 
+ * Created: October 17, 2026
+ * Updated: October 17, 2026
+ */
+
+package xyz.zagdrath.gpiblib.simulator;
+
+/**
+ * An instrument attached to the simulated bus. Calls are serialized by the
+ * simulator, so implementations do not need to be thread safe.
+ */
+public interface SimulatedInstrument {
+    /**
+     * Handles a device dependent message addressed to the instrument.
+     * 
+     * @param message message without its terminator
+     */
+    void write(String message);
+
+    /**
+     * Produces the instrument's next response, blocking for as long as the
+     * instrument would take to make it.
+     * 
+     * @return response including its terminator
+     * @throws InterruptedException
+     */
+    byte[] read() throws InterruptedException;
+
+    /**
+     * Get's the status byte returned to a serial poll, clearing the request for
+     * service.
+     * 
+     * @return statusByte
+     */
+    int serialPoll();
+
+    /**
+     * Check's whether the instrument is asserting SRQ.
+     * 
+     * @return true while requesting service
+     */
+    boolean isRequestingService();
+
+    /**
+     * Handles a selected device clear.
+     */
+    void clear();
+
+    /**
+     * Handles a group execute trigger.
+     */
+    void trigger();
+}
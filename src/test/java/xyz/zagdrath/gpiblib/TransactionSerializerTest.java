@@ -0,0 +1,198 @@
+/*
+ * @(#)TransactionSerializerTest.java
+ * 
+ * Copyright (c) 2022 Cody L. Wellman. All rights reserved. This work is
+ * licensed under the terms of the MIT license which can be found in the
+ * root directory of this project.
+ * 
+ * Author: Cody L. Wellman <zecoderex@gmail.com>
+ * 
+ * Created: October 17, 2026
+ * Updated: October 17, 2026
+ */
+
+package xyz.zagdrath.gpiblib;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import xyz.zagdrath.gpiblib.util.AsciiNumberParser;
+import xyz.zagdrath.gpiblib.util.ReadlineTerminationMode;
+import xyz.zagdrath.gpiblib.simulator.SimulatedHP5334;
+import xyz.zagdrath.gpiblib.simulator.PrologixSimulator;
+import xyz.zagdrath.gpiblib.instrument.Commands.HP5334Command;
+
+/**
+ * Runs transactions against the Prologix simulator with simulated HP 5334s at
+ * addresses 3 and 5.
+ */
+public class TransactionSerializerTest {
+    private final static BusAddress counterAddress = new BusAddress((byte) 3);
+    private final static BusAddress otherCounterAddress = new BusAddress((byte) 5);
+    private final static long timeoutMs = 1000;
+    private final static long shortTimeoutMs = 50;
+    private final static long lateReplyMs = 300;
+
+    private SimulatedHP5334 simulatedHP5334;
+    private PrologixSimulator prologixSimulator;
+    private PrologixEthernet prologixEthernet;
+    private TransactionSerializer transactionSerializer;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        simulatedHP5334 = new SimulatedHP5334();
+
+        simulatedHP5334.setNoise(0);
+        simulatedHP5334.setFrequencyA(10e6);
+
+        SimulatedHP5334 otherSimulatedHP5334 = new SimulatedHP5334();
+
+        otherSimulatedHP5334.setNoise(0);
+        otherSimulatedHP5334.setFrequencyA(5e6);
+
+        prologixSimulator = new PrologixSimulator();
+        prologixSimulator.attach(3, simulatedHP5334);
+        prologixSimulator.attach(5, otherSimulatedHP5334);
+        prologixSimulator.start(new InetSocketAddress("127.0.0.1", 0));
+
+        prologixEthernet = new PrologixEthernet(
+                new InetSocketAddress("127.0.0.1", prologixSimulator.getPort()));
+
+        transactionSerializer = new TransactionSerializer(prologixEthernet);
+    }
+
+    @AfterEach
+    public void tearDown() throws Exception {
+        transactionSerializer.close();
+        prologixEthernet.closeConnection();
+        prologixSimulator.close();
+    }
+
+    @Test
+    public void cookedQueryReturnsReply() throws Exception {
+        byte[] reply = transactionSerializer.transact(counterAddress, "ID",
+                ReadlineTerminationMode.CR_LF, timeoutMs);
+
+        assertEquals("HP5334A", new String(reply, StandardCharsets.US_ASCII));
+    }
+
+    @Test
+    public void encodedQueryReturnsReply() throws Exception {
+        byte[] reply = transactionSerializer.submit(counterAddress, HP5334Command.INSTRUMENT_ID,
+                ReadlineTerminationMode.CR_LF, timeoutMs).get();
+
+        assertEquals("HP5334A", new String(reply, StandardCharsets.US_ASCII));
+    }
+
+    @Test
+    public void coalescedQueriesReturnTheirOwnReplies() throws Exception {
+        CompletableFuture<byte[]> identification = transactionSerializer.submit(counterAddress,
+                HP5334Command.INSTRUMENT_ID, ReadlineTerminationMode.CR_LF, timeoutMs);
+        CompletableFuture<byte[]> frequency = transactionSerializer.submit(counterAddress,
+                HP5334Command.FREQ_A, ReadlineTerminationMode.CR_LF, timeoutMs);
+
+        assertEquals("HP5334A", new String(identification.get(), StandardCharsets.US_ASCII));
+
+        byte[] reading = frequency.get();
+
+        assertEquals(10e6, AsciiNumberParser.parseDouble(reading, 0, reading.length));
+    }
+
+    @Test
+    public void interleavedQueriesToTwoAddressesReturnTheirOwnReplies() throws Exception {
+        CompletableFuture<?>[] frequencies = new CompletableFuture<?>[16];
+
+        for (int i = 0; i < frequencies.length; i++) {
+            frequencies[i] = transactionSerializer.submit(
+                    i % 2 == 0 ? counterAddress : otherCounterAddress, HP5334Command.FREQ_A,
+                    ReadlineTerminationMode.CR_LF, timeoutMs);
+        }
+
+        for (int i = 0; i < frequencies.length; i++) {
+            byte[] reading = (byte[]) frequencies[i].get();
+
+            assertEquals(i % 2 == 0 ? 10e6 : 5e6,
+                    AsciiNumberParser.parseDouble(reading, 0, reading.length));
+        }
+    }
+
+    @Test
+    public void addressIsReissuedAfterFailure() throws Exception {
+        transactionSerializer.transact(counterAddress, "ID", ReadlineTerminationMode.CR_LF, timeoutMs);
+
+        long addressSwitches = prologixEthernet.getAddressSwitches();
+
+        simulatedHP5334.setLatencyNanos(TimeUnit.MILLISECONDS.toNanos(lateReplyMs));
+
+        ExecutionException executionException = assertThrows(ExecutionException.class,
+                () -> transactionSerializer.submit(counterAddress, HP5334Command.FREQ_A,
+                        ReadlineTerminationMode.CR_LF, shortTimeoutMs).get());
+
+        assertTrue(executionException.getCause() instanceof TimeoutException);
+
+        simulatedHP5334.setLatencyNanos(0);
+
+        byte[] reply = transactionSerializer.transact(counterAddress, "ID",
+                ReadlineTerminationMode.CR_LF, timeoutMs);
+
+        assertEquals("HP5334A", new String(reply, StandardCharsets.US_ASCII));
+
+        // The failure leaves the adapter's address unknown, so it is sent again
+        assertEquals(addressSwitches + 1, prologixEthernet.getAddressSwitches());
+    }
+
+    @Test
+    public void lateReplyIsNotTakenByNextQuery() throws Exception {
+        simulatedHP5334.setLatencyNanos(TimeUnit.MILLISECONDS.toNanos(lateReplyMs));
+
+        CompletableFuture<byte[]> frequency = transactionSerializer.submit(counterAddress,
+                HP5334Command.FREQ_A, ReadlineTerminationMode.CR_LF, shortTimeoutMs);
+        CompletableFuture<byte[]> identification = transactionSerializer.submit(otherCounterAddress,
+                HP5334Command.INSTRUMENT_ID, ReadlineTerminationMode.CR_LF, timeoutMs);
+
+        ExecutionException executionException = assertThrows(ExecutionException.class,
+                () -> frequency.get());
+
+        assertTrue(executionException.getCause() instanceof TimeoutException);
+
+        assertEquals("HP5334A", new String(identification.get(), StandardCharsets.US_ASCII));
+    }
+
+    @Test
+    public void prologixQueryIsNotFollowedByRead() throws Exception {
+        byte[] reply = transactionSerializer.submit(counterAddress, PrologixCommand.SRQ,
+                ReadlineTerminationMode.CR_LF, timeoutMs).get();
+
+        assertEquals("0", new String(reply, StandardCharsets.US_ASCII));
+
+        // A stray ++read would leave a reply behind for the next query
+        reply = transactionSerializer.transact(counterAddress, "ID",
+                ReadlineTerminationMode.CR_LF, timeoutMs);
+
+        assertEquals("HP5334A", new String(reply, StandardCharsets.US_ASCII));
+    }
+
+    @Test
+    public void submitAfterCloseFails() {
+        transactionSerializer.close();
+
+        ExecutionException executionException = assertThrows(ExecutionException.class,
+                () -> transactionSerializer.submit(counterAddress, "ID",
+                        ReadlineTerminationMode.CR_LF, timeoutMs).get());
+
+        assertTrue(executionException.getCause() instanceof IOException);
+    }
+}